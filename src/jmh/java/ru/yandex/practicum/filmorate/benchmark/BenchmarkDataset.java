@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.data.dao.UserDao;
+import ru.yandex.practicum.filmorate.data.index.FriendGraph;
+import ru.yandex.practicum.filmorate.data.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.data.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Приложение без веб-слоя на отдельной in-memory H2, заполненной заданным числом лайков.
+ * Каждый пользователь лайкает likes / users фильмов и дружит с FRIENDS_PER_USER соседями по id.
+ */
+final class BenchmarkDataset implements AutoCloseable {
+    static final int LIKES_PER_USER = 100;
+    static final int FRIENDS_PER_USER = 50;
+    private static final int MIN_ROWS = 100;
+    private static final int BATCH_SIZE = 10_000;
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    final ConfigurableApplicationContext context;
+    final JdbcTemplate jdbcTemplate;
+    final FilmDao filmDao;
+    final UserDao userDao;
+    final FilmService filmService;
+    final UserService userService;
+    final int users;
+    final int films;
+    final long idleUserId;
+
+    private BenchmarkDataset(int likes) {
+        users = Math.max(likes / LIKES_PER_USER, MIN_ROWS);
+        films = Math.max(likes / LIKES_PER_USER, MIN_ROWS);
+        String database = "bench" + DATABASE_COUNTER.incrementAndGet();
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.jdbc=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        filmDao = context.getBean("FilmDao", FilmDao.class);
+        userDao = context.getBean("UserDao", UserDao.class);
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+
+        seed(likes);
+        idleUserId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM users", Long.class);
+        context.getBean(PopularityIndex.class).rebuild();
+        context.getBean(FriendGraph.class).rebuild();
+        context.getBean(LikesMatrix.class).rebuild();
+    }
+
+    static BenchmarkDataset start(int likes) {
+        return new BenchmarkDataset(likes);
+    }
+
+    Film newFilm() {
+        Film film = new Film();
+        film.setName("Benchmark");
+        film.setDescription("Benchmark film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(1, null, null));
+        return film;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int likes) {
+        // пользователь без лайков и друзей (последний id) нужен бенчмаркам, которые меняют данные
+        batch("INSERT INTO users (user_id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)", users + 1,
+                (stmt, i) -> {
+                    stmt.setLong(1, i + 1);
+                    stmt.setString(2, "user" + i + "@mail.ru");
+                    stmt.setString(3, "user" + i);
+                    stmt.setString(4, "User " + i);
+                    stmt.setDate(5, Date.valueOf(LocalDate.of(1990, 1, 1)));
+                });
+        batch("INSERT INTO films (film_id, name, description, release_date, duration, mpa_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", films, (stmt, i) -> {
+                    stmt.setLong(1, i + 1);
+                    stmt.setString(2, "Film " + i);
+                    stmt.setString(3, "Description " + i);
+                    stmt.setDate(4, Date.valueOf(LocalDate.of(2000, 1, 1)));
+                    stmt.setInt(5, 90 + i % 60);
+                    stmt.setInt(6, 1 + i % 5);
+                });
+        batch("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", films, (stmt, i) -> {
+            stmt.setLong(1, i + 1);
+            stmt.setInt(2, 1 + i % 6);
+        });
+
+        int likesPerUser = Math.max(likes / users, 1);
+        batch("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", Math.min(likes, users * likesPerUser),
+                (stmt, i) -> {
+                    int user = i / likesPerUser;
+                    int k = i % likesPerUser;
+                    stmt.setLong(1, (user * 31L + k) % films + 1);
+                    stmt.setLong(2, user + 1);
+                });
+        batch("INSERT INTO friends (user_id, friend_id, confirmed) VALUES (?, ?, false)", users * FRIENDS_PER_USER,
+                (stmt, i) -> {
+                    int user = i / FRIENDS_PER_USER;
+                    int offset = i % FRIENDS_PER_USER + 1;
+                    stmt.setLong(1, user + 1);
+                    stmt.setLong(2, (user + offset) % users + 1);
+                });
+        jdbcTemplate.update("UPDATE films f SET likes_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH " + (users + 2));
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN film_id RESTART WITH " + (films + 1));
+    }
+
+    private void batch(String sql, int rows, RowSetter setter) {
+        for (int from = 0; from < rows; from += BATCH_SIZE) {
+            int start = from;
+            int size = Math.min(BATCH_SIZE, rows - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                    setter.set(stmt, start + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement stmt, int row) throws SQLException;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции JdbcFilmRepository и JdbcUserRepository на наборах из 1k, 100k и 1M лайков.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RepositoryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int likes;
+
+    private BenchmarkDataset dataset;
+    private long nextFilmId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = BenchmarkDataset.start(likes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataset.close();
+    }
+
+    @Benchmark
+    public List<Film> getAllFilms() {
+        return dataset.filmDao.getAllFilms();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return dataset.filmDao.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return dataset.userDao.getCommonFriends(1, 2);
+    }
+
+    /**
+     * Лайк и его снятие в одной операции, чтобы число лайков не росло от итерации к итерации.
+     */
+    @Benchmark
+    public long addLike() {
+        long filmId = nextFilmId++ % dataset.films + 1;
+        dataset.filmDao.addLike(filmId, dataset.idleUserId);
+        dataset.filmDao.removeLike(filmId, dataset.idleUserId);
+        return filmId;
+    }
+
+    @Benchmark
+    public Film addFilm() {
+        return dataset.filmDao.addFilm(dataset.newFilm());
+    }
+}
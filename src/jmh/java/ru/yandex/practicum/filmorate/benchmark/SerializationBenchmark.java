@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков Film и User в JSON тем же ObjectMapper, что настраивает Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Film> films;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MpaRating mpa = new MpaRating(1, "G", "Нет возрастных ограничений");
+        films = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Film film = new Film();
+            film.setId(i + 1);
+            film.setName("Film " + i);
+            film.setDescription("Description of film " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(90 + i % 60);
+            film.setMpa(mpa);
+            film.getGenres().add(new Genre(1 + i % 6, "Жанр"));
+            User user = new User();
+            user.setId(i + 1);
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            for (long j = 1; j <= BenchmarkDataset.FRIENDS_PER_USER / 5; j++) {
+                film.getLikes().add(j);
+                user.getFriends().add(j);
+            }
+            films.add(film);
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFilms() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
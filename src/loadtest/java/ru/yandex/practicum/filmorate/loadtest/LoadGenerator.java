@@ -0,0 +1,424 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.profiling.VirtualThreadPinningMonitor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузочный прогон запросов из коллекций Postman с открытой моделью нагрузки: запросы отправляются
+ * по расписанию с частотой rate независимо от того, успели ли ответить предыдущие.
+ * Задержка считается от запланированного момента отправки, а не от фактического, поэтому время ожидания
+ * в очереди пула при перегрузке тоже попадает в перцентили (поправка на coordinated omission).
+ */
+public class LoadGenerator {
+    private static final Pattern USER_ID_VARIABLE = Pattern.compile("friend_id|user\\d*_id");
+    private static final Pattern FILM_ID_VARIABLE = Pattern.compile("film\\d*_id");
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadOptions options;
+    private final String baseUrl;
+    private final String report;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Map<String, RequestStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong lastCompletionNanos = new AtomicLong();
+    private List<PostmanCollection> collections;
+    private long[] userIds;
+    private long[] filmIds;
+    private long[] mpaIds;
+    private long[] genreIds;
+
+    LoadGenerator(LoadOptions options, String baseUrl, String report) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.report = report;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        if (!options.compareModes().isEmpty()) {
+            compareModes(options);
+        } else if (options.startApp()) {
+            runAgainstApp(options, options.appArgs(), options.report());
+        } else {
+            new LoadGenerator(options, options.baseUrl(), options.report()).run();
+        }
+    }
+
+    /**
+     * Прогоняет одну и ту же нагрузку по очереди в каждом режиме приложения, каждый раз на новом экземпляре
+     * со своей базой, и сводит итоги в таблицу. Режим platform — приложение по умолчанию,
+     * остальные режимы — одноимённые профили Spring (virtual, reactive).
+     */
+    private static void compareModes(LoadOptions options) throws Exception {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String mode : options.compareModes()) {
+            List<String> appArgs = new ArrayList<>(options.appArgs());
+            appArgs.add("--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            if (!mode.equals("platform")) {
+                appArgs.add("--spring.profiles.active=" + mode);
+            }
+            System.out.printf("%n=== Режим: %s ===%n", mode);
+            String report = options.report() == null ? null : options.report().replaceFirst("(\\.json)?$", "-" + mode + "$1");
+            results.put(mode, runAgainstApp(options, appArgs, report));
+        }
+
+        System.out.printf("%n%-10s %9s %6s %6s %9s %9s %9s %9s %10s%n",
+                "Режим", "Запр/с", "5xx", "Сбои", "p50 мс", "p99 мс", "p99.9 мс", "max мс", "Закреплён");
+        results.forEach((mode, total) -> System.out.printf("%-10s %9.1f %6d %6d %9.2f %9.2f %9.2f %9.2f %10s%n",
+                mode, total.get("throughput"), total.get("serverErrors"), total.get("failures"),
+                total.get("p50Millis"), total.get("p99Millis"), total.get("p999Millis"), total.get("maxMillis"),
+                total.getOrDefault("pinned", "-")));
+    }
+
+    private static Map<String, Object> runAgainstApp(LoadOptions options, List<String> appArgs, String report)
+            throws Exception {
+        try (ConfigurableApplicationContext app = startApp(appArgs)) {
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            Map<String, Object> total = new LoadGenerator(options, baseUrl, report).run();
+            app.getBeanProvider(VirtualThreadPinningMonitor.class)
+                    .ifAvailable(monitor -> total.put("pinned", monitor.getPinnedCount()));
+            return total;
+        }
+    }
+
+    Map<String, Object> run() throws Exception {
+        List<Planned> plan = loadRequests();
+        System.out.printf("Цель %s, %d запросов из %d коллекций, %.0f запр/с, прогрев %d с, замер %d с, потоков %d%n",
+                baseUrl, plan.size(), collections.size(), options.rate(), options.warmupSeconds(),
+                options.durationSeconds(), options.concurrency());
+        seed();
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "load-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long warmupRequests = (long) (options.rate() * options.warmupSeconds());
+        long totalRequests = warmupRequests + (long) (options.rate() * options.durationSeconds());
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        long measureStart = start + warmupRequests * intervalNanos;
+
+        for (long i = 0; i < totalRequests; i++) {
+            long intended = start + i * intervalNanos;
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Planned planned = plan.get(ThreadLocalRandom.current().nextInt(plan.size()));
+            boolean measured = i >= warmupRequests;
+            workers.execute(() -> execute(planned, intended, measured));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(2, TimeUnit.MINUTES)) {
+            System.out.println("Не все запросы завершились за 2 минуты после окончания расписания");
+            workers.shutdownNow();
+        }
+
+        return report(Math.max(lastCompletionNanos.get() - measureStart, 1));
+    }
+
+    private static ConfigurableApplicationContext startApp(List<String> appArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.jdbc=WARN",
+                "--logging.level.org.zalando.logbook=WARN"));
+        args.addAll(appArgs);
+        return new SpringApplicationBuilder(FilmorateApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private List<Planned> loadRequests() throws IOException {
+        collections = new ArrayList<>();
+        for (String location : options.collections()) {
+            collections.add(PostmanCollection.load(objectMapper, location));
+        }
+        Pattern include = options.include() == null ? null : Pattern.compile(options.include());
+        List<Planned> plan = new ArrayList<>();
+        for (PostmanCollection collection : collections) {
+            for (PostmanCollection.RequestTemplate request : collection.getRequests()) {
+                if (include == null || include.matcher(request.name()).find()) {
+                    plan.add(new Planned(collection, request));
+                }
+            }
+        }
+        if (plan.isEmpty()) {
+            throw new IllegalArgumentException("Под фильтр не попал ни один запрос коллекций");
+        }
+        return plan;
+    }
+
+    /**
+     * Создаёт пользователей и фильмы пакетными запросами из тел «User create» и «Film create» коллекции
+     * и читает id рейтингов и жанров. Эти id затем подставляются в {{friend_id}}, {{film_id}} и подобные
+     * переменные, а в {{id}} — id того ресурса, за которым переменная стоит в пути: /films/{{id}} получает
+     * id фильма, /mpa/{{id}} и /genres/{{id}} — существующие рейтинг и жанр, остальные пути — id пользователя.
+     */
+    private void seed() throws IOException, InterruptedException {
+        userIds = createBatch("/users", findCreateBody("/users"), options.seedUsers());
+        JsonNode film = findCreateBody("/films");
+        if (!film.has("mpa")) {
+            // В «Film create» первой коллекции рейтинга нет, а без него фильм не создаётся
+            ((ObjectNode) film).putObject("mpa").put("id", 1);
+        }
+        filmIds = createBatch("/films", film, options.seedFilms());
+        mpaIds = fetchIds("/mpa");
+        genreIds = fetchIds("/genres");
+        System.out.printf("Создано %d пользователей и %d фильмов%n", userIds.length, filmIds.length);
+    }
+
+    private JsonNode findCreateBody(String path) throws IOException {
+        for (PostmanCollection collection : collections) {
+            for (PostmanCollection.RequestTemplate request : collection.getRequests()) {
+                if (request.method().equals("POST") && request.url().endsWith(path)
+                        && !request.name().contains("Fail") && !request.body().isBlank()) {
+                    return objectMapper.readTree(request.body());
+                }
+            }
+        }
+        throw new IllegalStateException("В коллекциях нет запроса POST " + path + " с телом");
+    }
+
+    private long[] createBatch(String path, JsonNode body, int count) throws IOException, InterruptedException {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            items.add(body.deepCopy());
+        }
+        HttpResponse<String> response = post(path + "/batch", items);
+        if (response.statusCode() != 200) {
+            // В профиле reactive пакетных эндпоинтов нет — создаём записи по одной
+            System.out.printf("POST %s/batch вернул %d, записи создаются по одной%n", path, response.statusCode());
+            return createOneByOne(path, body, count);
+        }
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(response.body()).path("items").forEach(item -> {
+            if (item.hasNonNull("id")) {
+                ids.add(item.get("id").asLong());
+            }
+        });
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("POST " + path + "/batch не создал ни одной записи: " + response.body());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long[] fetchIds(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            objectMapper.readTree(response.body()).forEach(item -> ids.add(item.path("id").asLong()));
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("GET " + path + " не вернул ни одной записи: " + response.statusCode());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long[] createOneByOne(String path, JsonNode body, int count) throws IOException, InterruptedException {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = post(path, body);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("POST " + path + " вернул " + response.statusCode()
+                        + ": " + response.body());
+            }
+            ids[i] = objectMapper.readTree(response.body()).path("id").asLong();
+        }
+        return ids;
+    }
+
+    private HttpResponse<String> post(String path, JsonNode body) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void execute(Planned planned, long intendedNanos, boolean measured) {
+        RequestStats requestStats = stats.computeIfAbsent(planned.request().name(), name -> new RequestStats());
+        int status;
+        try {
+            PostmanCollection.RequestTemplate template = planned.request();
+            String body = PostmanCollection.resolve(template.body(),
+                    (variable, segment) -> variable(planned, variable, segment));
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(PostmanCollection.resolve(template.url(),
+                            (variable, segment) -> variable(planned, variable, segment))))
+                    .timeout(Duration.ofSeconds(30))
+                    .method(template.method(), body.isEmpty()
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body));
+            if (!body.isEmpty()) {
+                request.header("Content-Type", "application/json");
+            }
+            status = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException | RuntimeException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long now = System.nanoTime();
+        lastCompletionNanos.accumulateAndGet(now, Math::max);
+        if (measured) {
+            requestStats.record(TimeUnit.NANOSECONDS.toMicros(now - intendedNanos), status);
+        }
+    }
+
+    private String variable(Planned planned, String name, String segment) {
+        if (name.equals("baseUrl")) {
+            return baseUrl;
+        }
+        long[] ids = idsFor(name, segment);
+        if (ids != null) {
+            return Long.toString(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        }
+        String value = planned.collection().getVariable(name);
+        return value == null || value.isEmpty() ? "1" : value;
+    }
+
+    private long[] idsFor(String name, String segment) {
+        if (FILM_ID_VARIABLE.matcher(name).matches()) {
+            return filmIds;
+        }
+        if (USER_ID_VARIABLE.matcher(name).matches()) {
+            return userIds;
+        }
+        if (!name.equals("id")) {
+            return null;
+        }
+        return switch (segment) {
+            case "films" -> filmIds;
+            case "mpa" -> mpaIds;
+            case "genres" -> genreIds;
+            default -> userIds;
+        };
+    }
+
+    private Map<String, Object> report(long measuredNanos) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("baseUrl", baseUrl);
+        result.put("rate", options.rate());
+        result.put("concurrency", options.concurrency());
+        result.put("durationSeconds", options.durationSeconds());
+
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long[] totalStatuses = new long[4];
+        Map<String, Object> requests = new LinkedHashMap<>();
+        System.out.printf("%n%-40s %8s %9s %6s %6s %6s %9s %9s %9s %9s%n",
+                "Запрос", "Всего", "Запр/с", "4xx", "5xx", "Сбои", "p50 мс", "p99 мс", "p99.9 мс", "max мс");
+        for (Map.Entry<String, RequestStats> entry : new TreeMap<>(stats).entrySet()) {
+            RequestStats requestStats = entry.getValue();
+            Histogram histogram = requestStats.recorder.getIntervalHistogram();
+            total.add(histogram);
+            long[] statuses = requestStats.statuses();
+            for (int i = 0; i < statuses.length; i++) {
+                totalStatuses[i] += statuses[i];
+            }
+            requests.put(entry.getKey(), summary(histogram, statuses, seconds));
+            print(entry.getKey(), histogram, statuses, seconds);
+        }
+        print("ИТОГО", total, totalStatuses, seconds);
+        Map<String, Object> totalSummary = summary(total, totalStatuses, seconds);
+        result.put("total", totalSummary);
+        result.put("requests", requests);
+
+        if (report != null) {
+            Path path = Path.of(report);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), result);
+            System.out.println("Отчёт сохранён в " + path.toAbsolutePath());
+        }
+        return totalSummary;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long[] statuses, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("throughput", histogram.getTotalCount() / seconds);
+        summary.put("clientErrors", statuses[1]);
+        summary.put("serverErrors", statuses[2]);
+        summary.put("failures", statuses[3]);
+        summary.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999Millis", histogram.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("maxMillis", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    private static void print(String name, Histogram histogram, long[] statuses, double seconds) {
+        System.out.printf("%-40.40s %8d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                statuses[1], statuses[2], statuses[3],
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private record Planned(PostmanCollection collection, PostmanCollection.RequestTemplate request) {
+    }
+
+    private static final class RequestStats {
+        private final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+        private final LongAdder success = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        void record(long latencyMicros, int status) {
+            recorder.recordValue(Math.min(Math.max(latencyMicros, 0), HIGHEST_LATENCY_MICROS));
+            if (status < 0) {
+                failures.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            } else {
+                success.increment();
+            }
+        }
+
+        long[] statuses() {
+            return new long[]{success.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum()};
+        }
+    }
+}
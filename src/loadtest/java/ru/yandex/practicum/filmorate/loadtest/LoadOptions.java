@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Параметры запуска {@link LoadGenerator} в виде «-имя значение»; -start-app и -compare-threads — флаги без значения,
+ * -compare-threads — то же, что -compare platform,virtual.
+ */
+record LoadOptions(
+        String baseUrl,
+        List<String> collections,
+        String include,
+        double rate,
+        int durationSeconds,
+        int warmupSeconds,
+        int concurrency,
+        int seedUsers,
+        int seedFilms,
+        String report,
+        boolean startApp,
+        List<String> compareModes,
+        List<String> appArgs) {
+
+    static LoadOptions parse(String[] args) {
+        String baseUrl = "http://localhost:8080";
+        List<String> collections = List.of("classpath:postman/sprint.json", "classpath:postman/sprintPR2.json");
+        String include = null;
+        double rate = 200;
+        int duration = 30;
+        int warmup = 5;
+        int concurrency = 64;
+        int seedUsers = 100;
+        int seedFilms = 100;
+        String report = null;
+        boolean startApp = false;
+        List<String> compareModes = List.of();
+        List<String> appArgs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("-start-app")) {
+                startApp = true;
+                continue;
+            }
+            if (option.equals("-compare-threads")) {
+                compareModes = List.of("platform", "virtual");
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Не задано значение параметра " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "-base-url" -> baseUrl = value;
+                case "-collections" -> collections = List.of(value.split(","));
+                case "-include" -> include = value;
+                case "-rate" -> rate = Double.parseDouble(value);
+                case "-duration" -> duration = Integer.parseInt(value);
+                case "-warmup" -> warmup = Integer.parseInt(value);
+                case "-concurrency" -> concurrency = Integer.parseInt(value);
+                case "-seed-users" -> seedUsers = Integer.parseInt(value);
+                case "-seed-films" -> seedFilms = Integer.parseInt(value);
+                case "-report" -> report = value;
+                case "-app-arg" -> appArgs.add(value);
+                case "-compare" -> compareModes = List.of(value.split(","));
+                default -> throw new IllegalArgumentException("Неизвестный параметр " + option);
+            }
+        }
+        if (rate <= 0 || duration <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("rate, duration и concurrency должны быть положительными");
+        }
+        return new LoadOptions(baseUrl, collections, include, rate, duration, Math.max(warmup, 0), concurrency,
+                Math.max(seedUsers, 2), Math.max(seedFilms, 1), report, startApp, compareModes, List.copyOf(appArgs));
+    }
+}
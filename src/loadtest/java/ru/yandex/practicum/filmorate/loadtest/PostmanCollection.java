@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Запросы коллекции Postman v2.1: метод, URL и тело с подстановками {{переменная}}.
+ * Скрипты pre-request и test не исполняются — переменные подставляет {@link LoadGenerator}.
+ */
+final class PostmanCollection {
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{(\\w+)}}");
+
+    private final String name;
+    private final List<RequestTemplate> requests;
+    private final Map<String, String> variables;
+
+    private PostmanCollection(String name, List<RequestTemplate> requests, Map<String, String> variables) {
+        this.name = name;
+        this.requests = requests;
+        this.variables = variables;
+    }
+
+    static PostmanCollection load(ObjectMapper objectMapper, String location) throws IOException {
+        JsonNode root;
+        try (InputStream in = open(location)) {
+            root = objectMapper.readTree(in);
+        }
+        Map<String, String> variables = new HashMap<>();
+        root.path("variable").forEach(variable ->
+                variables.put(variable.path("key").asText(), variable.path("value").asText()));
+        List<RequestTemplate> requests = new ArrayList<>();
+        collect(root.path("item"), requests);
+        return new PostmanCollection(root.path("info").path("name").asText(location), requests, variables);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<RequestTemplate> getRequests() {
+        return requests;
+    }
+
+    String getVariable(String key) {
+        return variables.get(key);
+    }
+
+    /**
+     * Подставляет переменные, передавая вместе с именем сегмент пути перед ней: для /films/{{id}} это «films»,
+     * для /films/{{film_id}}/like/{{id}} — «like». У переменной не в пути сегмент пустой.
+     */
+    static String resolve(String template, BiFunction<String, String, String> variables) {
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String segment = precedingSegment(template, matcher.start());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(variables.apply(matcher.group(1), segment)));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String precedingSegment(String template, int variableStart) {
+        if (variableStart == 0 || template.charAt(variableStart - 1) != '/') {
+            return "";
+        }
+        int from = template.lastIndexOf('/', variableStart - 2) + 1;
+        return template.substring(from, variableStart - 1);
+    }
+
+    private static void collect(JsonNode items, List<RequestTemplate> requests) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.path("item"), requests);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String rawUrl = url.isObject() ? url.path("raw").asText() : url.asText();
+            // Переменные пути вида /films/:id заданы отдельно и обычно ссылаются на {{переменные}} коллекции
+            for (JsonNode variable : url.path("variable")) {
+                rawUrl = rawUrl.replace(":" + variable.path("key").asText(), variable.path("value").asText());
+            }
+            requests.add(new RequestTemplate(
+                    item.path("name").asText(),
+                    request.path("method").asText("GET"),
+                    rawUrl,
+                    request.path("body").path("raw").asText("")));
+        }
+    }
+
+    private static InputStream open(String location) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length());
+            InputStream in = PostmanCollection.class.getClassLoader().getResourceAsStream(resource);
+            if (in == null) {
+                throw new IOException("Коллекция не найдена в classpath: " + resource);
+            }
+            return in;
+        }
+        return Files.newInputStream(Path.of(location));
+    }
+
+    record RequestTemplate(String name, String method, String url, String body) {
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Условные GET по тегам из {@link ru.yandex.practicum.filmorate.data.cache.EntityVersions}. If-None-Match
+ * сверяется до обращения к сервисам, поэтому 304 обходится без чтения БД: тег есть только у клиента,
+ * которому сущность уже отдавали, а эпоха и поколение в теге не дают совпасть устаревшему.
+ * ETag выставляется только вместе с телом, так что ответы 404 и 500 его не несут.
+ */
+final class ConditionalResponses {
+    private static final String WEAK_PREFIX = "W/";
+
+    private ConditionalResponses() {
+    }
+
+    static boolean notModified(WebRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        return ifNoneMatch != null && matches(ifNoneMatch, etag) && request.checkNotModified(etag);
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
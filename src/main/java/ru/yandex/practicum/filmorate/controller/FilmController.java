@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,17 +15,25 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/films")
 @Slf4j
 @RequiredArgsConstructor
 public class FilmController {
     private final FilmService filmService;
+    private final EntityVersions versions;
+    private final SerializedResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public Film addFilm(@Valid @RequestBody Film film) {
@@ -30,6 +41,12 @@ public class FilmController {
         return filmService.addFilm(film);
     }
 
+    @PostMapping("/batch")
+    public BatchResult addFilms(@RequestBody List<Film> films) {
+        log.info("Пакетное добавление {} фильмов", films.size());
+        return filmService.addFilms(films);
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film film) {
         log.info("Обновление фильма: {}", film);
@@ -37,15 +54,33 @@ public class FilmController {
     }
 
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable long id) {
+    public ResponseEntity<Film> getFilm(@PathVariable long id, WebRequest request) {
         log.info("Получение фильма с id={}", id);
-        return filmService.getFilm(id);
+        String etag = versions.filmTag(id);
+        if (ConditionalResponses.notModified(request, etag)) {
+            return null;
+        }
+        return ConditionalResponses.ok(etag, filmService.getFilm(id));
     }
 
     @GetMapping
-    public List<Film> getAllFilms() {
-        log.info("Получение всех фильмов");
-        return filmService.getAllFilms();
+    public ResponseEntity<List<Film>> getAllFilms(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after) {
+        if (limit == null && after == null) {
+            log.info("Получение всех фильмов");
+            return ResponseEntity.ok(filmService.getAllFilms());
+        }
+        log.info("Получение страницы фильмов: after={}, limit={}", after, limit);
+        return PageResponses.toResponse(filmService.getFilmsPage(
+                after == null ? 0 : after,
+                limit == null ? PageResponses.DEFAULT_PAGE_SIZE : limit));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllFilms() {
+        log.info("Потоковая выгрузка всех фильмов");
+        return NdjsonResponses.stream(objectMapper, filmService::streamAllFilms);
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -60,10 +95,20 @@ public class FilmController {
         filmService.removeLike(id, userId);
     }
 
+    @GetMapping("/search")
+    public List<Film> searchFilms(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10", required = false) int limit) {
+        log.info("Поиск фильмов по запросу '{}', limit={}", q, limit);
+        return filmService.searchFilms(q, limit);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(
-            @RequestParam(defaultValue = "10", required = false) int count) {
+    public ResponseEntity<byte[]> getPopularFilms(
+            @RequestParam(defaultValue = "10", required = false) int count,
+            WebRequest request) {
         log.info("Получение {} самых популярных фильмов", count);
-        return filmService.getPopularFilms(count);
+        return responseCache.respond("popular:" + count, versions.popularFilmsTag(count),
+                () -> filmService.getPopularFilms(count), request);
     }
 }
\ No newline at end of file
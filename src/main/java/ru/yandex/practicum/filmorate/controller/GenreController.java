@@ -1,28 +1,38 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.List;
-
+@Profile("!reactive")
 @RestController
 @RequestMapping("/genres")
 @RequiredArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final EntityVersions versions;
+    private final SerializedResponseCache responseCache;
 
     @GetMapping
-    public List<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
+        return responseCache.respond("genres", versions.referenceTag("genres", genreService.getVersion()),
+                genreService::getAllGenres, request);
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable("id") int genreId) {
-        return genreService.getGenreById(genreId);
+    public ResponseEntity<Genre> getGenreById(@PathVariable("id") int genreId, WebRequest request) {
+        String etag = versions.referenceTag("genres" + genreId, genreService.getVersion());
+        if (ConditionalResponses.notModified(request, etag)) {
+            return null;
+        }
+        return ConditionalResponses.ok(etag, genreService.getGenreById(genreId));
     }
 }
\ No newline at end of file
@@ -1,28 +1,38 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
-import java.util.List;
-
+@Profile("!reactive")
 @RestController
 @RequestMapping("/mpa")
 @RequiredArgsConstructor
 public class MpaController {
     private final MpaService mpaService;
+    private final EntityVersions versions;
+    private final SerializedResponseCache responseCache;
 
     @GetMapping
-    public List<MpaRating> getAllMpaRatings() {
-        return mpaService.getAllMpaRatings();
+    public ResponseEntity<byte[]> getAllMpaRatings(WebRequest request) {
+        return responseCache.respond("mpa", versions.referenceTag("mpa", mpaService.getVersion()),
+                mpaService::getAllMpaRatings, request);
     }
 
     @GetMapping("/{id}")
-    public MpaRating getMpaById(@PathVariable int id) {
-        return mpaService.getMpaById(id);
+    public ResponseEntity<MpaRating> getMpaById(@PathVariable int id, WebRequest request) {
+        String etag = versions.referenceTag("mpa" + id, mpaService.getVersion());
+        if (ConditionalResponses.notModified(request, etag)) {
+            return null;
+        }
+        return ConditionalResponses.ok(etag, mpaService.getMpaById(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовые байты JSON (и их gzip) для часто читаемых ответов. Запись привязана к ETag из
+ * {@link ru.yandex.practicum.filmorate.data.cache.EntityVersions}: после записи в БД тег меняется,
+ * и следующий запрос пересобирает ответ, поэтому отдельная инвалидация не нужна.
+ * Условный запрос проверяется до обращения к кэшу и сервисам, а ETag выставляется только вместе с телом.
+ * Число ключей ограничено: при переполнении вытесняется давно не запрошенный ключ (LRU),
+ * поэтому произвольные параметры запроса не раздувают кэш и не вытесняют навсегда горячие ключи.
+ */
+@Component
+public class SerializedResponseCache {
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public SerializedResponseCache(
+            ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${filmorate.response-cache.gzip:true}") boolean gzip,
+            @Value("${filmorate.response-cache.max-entries:64}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > SerializedResponseCache.this.maxEntries;
+            }
+        };
+        MeterRegistry meterRegistry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = Counter.builder("filmorate.response.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("filmorate.response.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public ResponseEntity<byte[]> respond(String key, String etag, Supplier<?> body, WebRequest request) {
+        if (ConditionalResponses.notModified(request, etag)) {
+            return null;
+        }
+        Entry entry = get(key);
+        if (entry != null && entry.etag().equals(etag)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = serialize(etag, body.get());
+            put(key, entry);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzipped() != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzipped());
+        }
+        return response.body(entry.json());
+    }
+
+    private Entry get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry serialize(String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Entry(etag, json, gzip ? compress(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        return acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * Разбирает Accept-Encoding с учётом q-значений: gzip;q=0 означает отказ от gzip,
+     * а без явного gzip решает «*».
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && (parameter.startsWith("q=") || parameter.startsWith("Q="))) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private record Entry(String etag, byte[] json, byte[] gzipped) {
+    }
+}
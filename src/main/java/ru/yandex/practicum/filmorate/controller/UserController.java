@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,18 +13,31 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/users")
 @Slf4j
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final EntityVersions versions;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public User addUser(@Valid @RequestBody User user) {
@@ -29,6 +45,18 @@ public class UserController {
         return userService.addUser(user);
     }
 
+    @PostMapping("/batch")
+    public BatchResult addUsers(@RequestBody List<User> users) {
+        log.info("Пакетное добавление {} пользователей", users.size());
+        return userService.addUsers(users);
+    }
+
+    @PostMapping("/friends/batch")
+    public BatchResult addFriendships(@RequestBody List<Friendship> friendships) {
+        log.info("Пакетное добавление {} связей дружбы", friendships.size());
+        return userService.addFriendships(friendships);
+    }
+
     @PutMapping
     public User updateUser(@Valid @RequestBody User user) {
         log.info("Обновление пользователя: {}", user);
@@ -36,15 +64,34 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public User getUser(@PathVariable long id) {
+    public ResponseEntity<User> getUser(@PathVariable long id, WebRequest request) {
         log.info("Получение пользователя с id={}", id);
-        return userService.getUser(id);
+        String etag = versions.userTag(id);
+        if (ConditionalResponses.notModified(request, etag)) {
+            return null;
+        }
+        return ConditionalResponses.ok(etag, userService.getUser(id));
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        log.info("Получение всех пользователей");
-        return userService.getAllUsers();
+    public ResponseEntity<List<User>> getAllUsers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "true") boolean friends) {
+        if (limit == null && after == null) {
+            log.info("Получение всех пользователей");
+            return ResponseEntity.ok(userService.getAllUsers(friends));
+        }
+        log.info("Получение страницы пользователей: after={}, limit={}", after, limit);
+        return PageResponses.toResponse(userService.getUsersPage(
+                after == null ? 0 : after,
+                limit == null ? PageResponses.DEFAULT_PAGE_SIZE : limit));
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllUsers() {
+        log.info("Потоковая выгрузка всех пользователей");
+        return NdjsonResponses.stream(objectMapper, userService::streamAllUsers);
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -60,14 +107,43 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable long id) {
-        log.info("Получение списка друзей пользователя {}", id);
-        return userService.getFriends(id);
+    public ResponseEntity<List<User>> getFriends(
+            @PathVariable long id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "true") boolean friends) {
+        if (limit == null && after == null) {
+            log.info("Получение списка друзей пользователя {}", id);
+            return ResponseEntity.ok(userService.getFriends(id, friends));
+        }
+        log.info("Получение страницы друзей пользователя {}: after={}, limit={}", id, after, limit);
+        return PageResponses.toResponse(userService.getFriendsPage(id,
+                after == null ? 0 : after,
+                limit == null ? PageResponses.DEFAULT_PAGE_SIZE : limit));
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<FriendSuggestion> getFriendSuggestions(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "10", required = false) int limit) {
+        log.info("Получение {} рекомендаций друзей для пользователя {}", limit, id);
+        return userService.getFriendSuggestions(id, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendedFilms(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "10", required = false) int count) {
+        log.info("Получение {} рекомендаций фильмов для пользователя {}", count, id);
+        return filmService.getRecommendedFilms(id, count);
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    public List<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+    public List<User> getCommonFriends(
+            @PathVariable long id,
+            @PathVariable long otherId,
+            @RequestParam(defaultValue = "true") boolean friends) {
         log.info("Получение общих друзей пользователей {} и {}", id, otherId);
-        return userService.getCommonFriends(id, otherId);
+        return userService.getCommonFriends(id, otherId, friends);
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/films")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+    private final ReactiveFilmService filmService;
+
+    @PostMapping
+    public Mono<Film> addFilm(@Valid @RequestBody Film film) {
+        log.info("Добавление фильма: {}", film);
+        return filmService.addFilm(film);
+    }
+
+    @PutMapping
+    public Mono<Film> updateFilm(@Valid @RequestBody Film film) {
+        log.info("Обновление фильма: {}", film);
+        return filmService.updateFilm(film);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Film> getFilm(@PathVariable long id) {
+        log.info("Получение фильма с id={}", id);
+        return filmService.getFilm(id);
+    }
+
+    @GetMapping
+    public Flux<Film> getAllFilms() {
+        log.info("Получение всех фильмов");
+        return filmService.getAllFilms();
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<Void> addLike(@PathVariable long id, @PathVariable long userId) {
+        log.info("Добавление лайка фильму {} от пользователя {}", id, userId);
+        return filmService.addLike(id, userId);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<Void> removeLike(@PathVariable long id, @PathVariable long userId) {
+        log.info("Удаление лайка у фильма {} от пользователя {}", id, userId);
+        return filmService.removeLike(id, userId);
+    }
+
+    @GetMapping("/popular")
+    public Flux<Film> getPopularFilms(
+            @RequestParam(defaultValue = "10", required = false) int count) {
+        log.info("Получение {} самых популярных фильмов", count);
+        return filmService.getPopularFilms(count);
+    }
+}
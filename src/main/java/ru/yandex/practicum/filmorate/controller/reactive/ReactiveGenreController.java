@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/genres")
+@RequiredArgsConstructor
+public class ReactiveGenreController {
+    private final ReactiveFilmService filmService;
+
+    @GetMapping
+    public Flux<Genre> getAllGenres() {
+        return filmService.getAllGenres();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Genre> getGenreById(@PathVariable("id") int genreId) {
+        return filmService.getGenreById(genreId);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/mpa")
+@RequiredArgsConstructor
+public class ReactiveMpaController {
+    private final ReactiveFilmService filmService;
+
+    @GetMapping
+    public Flux<MpaRating> getAllMpaRatings() {
+        return filmService.getAllMpaRatings();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<MpaRating> getMpaById(@PathVariable int id) {
+        return filmService.getMpaById(id);
+    }
+}
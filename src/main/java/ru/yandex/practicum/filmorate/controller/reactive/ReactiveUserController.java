@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+
+@Profile("reactive")
+@RestController
+@RequestMapping("/users")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    public Mono<User> addUser(@Valid @RequestBody User user) {
+        log.info("Добавление пользователя: {}", user);
+        return userService.addUser(user);
+    }
+
+    @PutMapping
+    public Mono<User> updateUser(@Valid @RequestBody User user) {
+        log.info("Обновление пользователя: {}", user);
+        return userService.updateUser(user);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> getUser(@PathVariable long id) {
+        log.info("Получение пользователя с id={}", id);
+        return userService.getUser(id);
+    }
+
+    @GetMapping
+    public Flux<User> getAllUsers() {
+        log.info("Получение всех пользователей");
+        return userService.getAllUsers();
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable long id, @PathVariable long friendId) {
+        log.info("Добавление в друзья: пользователь {} добавляет пользователя {}", id, friendId);
+        return userService.addFriend(id, friendId);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        log.info("Удаление из друзей: пользователь {} удаляет пользователя {}", id, friendId);
+        return userService.removeFriend(id, friendId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public Flux<User> getFriends(@PathVariable long id) {
+        log.info("Получение списка друзей пользователя {}", id);
+        return userService.getFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public Flux<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        log.info("Получение общих друзей пользователей {} и {}", id, otherId);
+        return userService.getCommonFriends(id, otherId);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.controller.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * В профиле reactive API обслуживает Netty с небольшим фиксированным числом потоков событий.
+ * Tomcat остаётся в classpath ради основного стека, и без явной фабрики Spring Boot выбрал бы его.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счётчики версий фильмов, пользователей и списка популярных фильмов для сильных ETag.
+ * Версии хранятся в фиксированном массиве ячеек по id: совпадение ячеек у разных сущностей
+ * даёт лишь лишний ответ 200, но не устаревший 304. Версия повышается после фиксации записи в БД,
+ * а читается до загрузки данных, поэтому ETag никогда не оказывается новее отданного тела.
+ * В тег входит время запуска, так что после перезапуска с пустой БД старые теги не совпадут.
+ */
+@Component
+public class EntityVersions {
+    private static final int SLOTS = 4096;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLongArray filmVersions = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray userVersions = new AtomicLongArray(SLOTS);
+    private final AtomicLong popularVersion = new AtomicLong();
+
+    public String filmTag(long filmId) {
+        return tag("f" + filmId, filmVersions.get(slot(filmId)));
+    }
+
+    public String userTag(long userId) {
+        return tag("u" + userId, userVersions.get(slot(userId)));
+    }
+
+    public String popularFilmsTag(int count) {
+        return tag("p" + count, popularVersion.get());
+    }
+
+    public String referenceTag(String name, long version) {
+        return tag(name, version);
+    }
+
+    public void filmChanged(long filmId) {
+        filmVersions.incrementAndGet(slot(filmId));
+        popularVersion.incrementAndGet();
+    }
+
+    public void filmsChanged(Collection<Long> filmIds) {
+        filmIds.forEach(filmId -> filmVersions.incrementAndGet(slot(filmId)));
+        popularVersion.incrementAndGet();
+    }
+
+    public void userChanged(long userId) {
+        userVersions.incrementAndGet(slot(userId));
+    }
+
+    public void usersChanged(Collection<Long> userIds) {
+        userIds.forEach(this::userChanged);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    private String tag(String resource, long version) {
+        return "\"" + epoch + "-" + generation.get() + "-" + resource + "-" + version + "\"";
+    }
+
+    private static int slot(long id) {
+        return (int) (id & SLOT_MASK);
+    }
+}
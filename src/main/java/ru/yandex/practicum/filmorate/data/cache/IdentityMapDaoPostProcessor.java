@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.data.dao.GenreDao;
+import ru.yandex.practicum.filmorate.data.dao.MpaDao;
+import ru.yandex.practicum.filmorate.data.dao.UserDao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ставит перед FilmDao, UserDao, MpaDao и GenreDao прокси, которые читают сущности по id через
+ * {@link RequestIdentityMap}. Кэшируются только поиски по одному ключу. Чтения перечислены явно,
+ * а любой другой метод, в том числе новый метод DAO, считается записью и очищает карту запроса.
+ * По умолчанию выключено (filmorate.identity-map.enabled).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.identity-map.enabled", havingValue = "true")
+public class IdentityMapDaoPostProcessor implements BeanPostProcessor {
+    private static final Map<String, Class<?>> DAO_TYPES = Map.of(
+            "FilmDao", FilmDao.class,
+            "UserDao", UserDao.class,
+            "MpaDao", MpaDao.class,
+            "GenreDao", GenreDao.class);
+    private static final Set<String> CACHED_METHODS = Set.of(
+            "getFilm", "filmExists", "getUser", "userExists", "getMpaById", "getGenreById", "getGenresByFilmId");
+    private static final Set<String> READ_METHODS = Set.of(
+            "getFilm", "getAllFilms", "getFilmsByIds", "getFilmsPage", "streamAllFilms", "getPopularFilms",
+            "getRecommendedFilms", "searchFilms", "filmExists", "findLikesCountDrift",
+            "getUser", "getAllUsers", "getUsersPage", "streamAllUsers", "getFriends", "getFriendsPage",
+            "getCommonFriends", "getFriendSuggestions", "userExists", "findExistingUserIds",
+            "getAllMpaRatings", "getMpaById",
+            "getAllGenres", "getGenresByFilmId", "getGenresByFilmIds", "getGenresOfAllFilms",
+            "getByIds", "getGenreById");
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> daoType = DAO_TYPES.get(beanName);
+        if (daoType == null || !daoType.isInstance(bean)) {
+            return bean;
+        }
+        log.info("Карта сущностей запроса включена для {}", beanName);
+        return Proxy.newProxyInstance(daoType.getClassLoader(), new Class<?>[]{daoType},
+                new IdentityMapHandler(beanName, bean));
+    }
+
+    private record IdentityMapHandler(String dao, Object target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (args != null && args.length == 1 && CACHED_METHODS.contains(name)) {
+                return RequestIdentityMap.lookup(dao, name, Arrays.asList(args), () -> call(method, args));
+            }
+            if (!READ_METHODS.contains(name) && method.getDeclaringClass() != Object.class) {
+                RequestIdentityMap.invalidate();
+            }
+            return call(method, args);
+        }
+
+        private Object call(Method method, Object[] args) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
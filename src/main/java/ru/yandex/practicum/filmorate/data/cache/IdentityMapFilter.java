@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Открывает {@link RequestIdentityMap} на время HTTP-запроса и публикует, сколько чтений из БД
+ * карта сэкономила (filmorate.identity.map с тегом result=hit) и сколько пропустила в БД (result=miss).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.identity-map.enabled", havingValue = "true")
+public class IdentityMapFilter extends OncePerRequestFilter {
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public IdentityMapFilter(ObjectProvider<MeterRegistry> registry) {
+        MeterRegistry meterRegistry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = Counter.builder("filmorate.identity.map")
+                .description("Повторные чтения сущностей в пределах запроса, отданные без обращения к БД")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("filmorate.identity.map")
+                .description("Чтения сущностей, выполненные в БД")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (RequestIdentityMap.Scope scope = RequestIdentityMap.open()) {
+            chain.doFilter(request, response);
+
+            hits.increment(scope.hits());
+            misses.increment(scope.misses());
+            if (scope.hits() > 0) {
+                log.debug("{} {}: {} повторных чтений отдано из карты сущностей запроса",
+                        request.getMethod(), request.getRequestURI(), scope.hits());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.data.dao.GenreDao;
+import ru.yandex.practicum.filmorate.data.dao.MpaDao;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.List;
+
+/**
+ * Справочники MPA и жанров, загруженные из БД один раз. Снимок неизменяем и заменяется целиком
+ * при вызове {@link #reload()}, поэтому фильмы разделяют одни и те же экземпляры MpaRating и Genre.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+    private final MpaDao mpaDao;
+    private final GenreDao genreDao;
+    private volatile Snapshot snapshot;
+    private volatile long version;
+
+    @Autowired
+    public ReferenceDataCache(@Qualifier("MpaDao") MpaDao mpaDao, @Qualifier("GenreDao") GenreDao genreDao) {
+        this.mpaDao = mpaDao;
+        this.genreDao = genreDao;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        List<MpaRating> mpaRatings = List.copyOf(mpaDao.getAllMpaRatings());
+        List<Genre> genres = List.copyOf(genreDao.getAllGenres());
+
+        int maxMpaId = mpaRatings.stream().mapToInt(MpaRating::getId).max().orElse(0);
+        MpaRating[] mpaById = new MpaRating[maxMpaId + 1];
+        mpaRatings.forEach(mpa -> mpaById[mpa.getId()] = mpa);
+
+        int maxGenreId = (int) genres.stream().mapToLong(Genre::getId).max().orElse(0);
+        Genre[] genresById = new Genre[maxGenreId + 1];
+        genres.forEach(genre -> genresById[(int) genre.getId()] = genre);
+
+        snapshot = new Snapshot(mpaById, mpaRatings, genresById, genres);
+        version++;
+        log.info("Справочники загружены: {} рейтингов MPA, {} жанров", mpaRatings.size(), genres.size());
+    }
+
+    public long getVersion() {
+        snapshot();
+        return version;
+    }
+
+    public List<MpaRating> getAllMpaRatings() {
+        return snapshot().mpaRatings();
+    }
+
+    public MpaRating getMpa(int id) {
+        MpaRating[] mpaById = snapshot().mpaById();
+        return id >= 0 && id < mpaById.length ? mpaById[id] : null;
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot().genres();
+    }
+
+    public Genre getGenre(long id) {
+        Genre[] genresById = snapshot().genresById();
+        return id >= 0 && id < genresById.length ? genresById[(int) id] : null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record Snapshot(MpaRating[] mpaById, List<MpaRating> mpaRatings, Genre[] genresById, List<Genre> genres) {
+    }
+}
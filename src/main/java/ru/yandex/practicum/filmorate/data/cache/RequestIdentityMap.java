@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Карта загруженных сущностей текущего потока: пока открыта область {@link #open()}, повторный вызов
+ * того же читающего метода DAO с теми же аргументами отдаёт уже загруженный объект без запроса к БД.
+ * Любая запись через DAO очищает карту целиком. Вне области вызовы идут в БД как обычно.
+ */
+public final class RequestIdentityMap {
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private RequestIdentityMap() {
+    }
+
+    public static Scope open() {
+        State state = STATE.get();
+        if (state == null) {
+            state = new State();
+            STATE.set(state);
+        }
+        state.openScopes++;
+        return new Scope(state);
+    }
+
+    static Object lookup(String dao, String method, List<Object> args, Supplier<Object> loader) {
+        State state = STATE.get();
+        if (state == null) {
+            return loader.get();
+        }
+        Key key = new Key(dao, method, args);
+        Object cached = state.entries.get(key);
+        if (cached != null) {
+            state.hits++;
+            return cached;
+        }
+        state.misses++;
+        Object loaded = loader.get();
+        if (loaded != null) {
+            state.entries.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    static void invalidate() {
+        State state = STATE.get();
+        if (state != null) {
+            state.entries.clear();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final State state;
+        private final long startHits;
+        private final long startMisses;
+        private boolean closed;
+
+        private Scope(State state) {
+            this.state = state;
+            this.startHits = state.hits;
+            this.startMisses = state.misses;
+        }
+
+        public long hits() {
+            return state.hits - startHits;
+        }
+
+        public long misses() {
+            return state.misses - startMisses;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (--state.openScopes == 0) {
+                STATE.remove();
+            }
+        }
+    }
+
+    private record Key(String dao, String method, List<Object> args) {
+    }
+
+    private static final class State {
+        private final Map<Key, Object> entries = new HashMap<>();
+        private long hits;
+        private long misses;
+        private int openScopes;
+    }
+}
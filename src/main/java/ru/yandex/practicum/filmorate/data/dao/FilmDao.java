@@ -1,23 +1,45 @@
 package ru.yandex.practicum.filmorate.data.dao;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikesCountDrift;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmDao {
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film getFilm(long id);
 
     List<Film> getAllFilms();
 
+    List<Film> getFilmsByIds(List<Long> filmIds);
+
+    List<Film> getFilmsPage(long afterId, int limit);
+
+    void streamAllFilms(Consumer<Film> consumer);
+
     void addLike(long filmId, long userId);
 
-    void removeLike(long filmId, long userId);
+    boolean removeLike(long filmId, long userId);
+
+    void applyLikes(Collection<Like> added, Collection<Like> removed);
 
     List<Film> getPopularFilms(int count);
 
+    List<Film> getRecommendedFilms(long userId, int count);
+
+    List<Film> searchFilms(String query, int limit);
+
     boolean filmExists(long filmId);
+
+    List<LikesCountDrift> findLikesCountDrift();
+
+    int repairLikesCount();
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package ru.yandex.practicum.filmorate.data.dao;
 
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -13,6 +15,10 @@ public interface GenreDao {
 
     Set<Genre> getGenresByFilmId(long filmId);
 
+    Map<Long, Set<Genre>> getGenresByFilmIds(Collection<Long> filmIds);
+
+    Map<Long, Set<Genre>> getGenresOfAllFilms();
+
     List<Genre> getByIds(List<Long> ids);
 
     Optional<Genre> getGenreById(int genreId);
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.data.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+
+public interface ReactiveFilmDao {
+    Mono<Film> addFilm(Film film);
+
+    Mono<Film> updateFilm(Film film);
+
+    Mono<Film> getFilm(long id);
+
+    Flux<Film> getAllFilms();
+
+    Mono<Void> addLike(long filmId, long userId);
+
+    Mono<Void> removeLike(long filmId, long userId);
+
+    Flux<Film> getPopularFilms(int count);
+
+    Mono<Boolean> filmExists(long filmId);
+}
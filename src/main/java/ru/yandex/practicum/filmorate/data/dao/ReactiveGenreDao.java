@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.data.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Collection;
+
+public interface ReactiveGenreDao {
+    Flux<Genre> getAllGenres();
+
+    Flux<Genre> getByIds(Collection<Long> ids);
+
+    Mono<Genre> getGenreById(int genreId);
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.data.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+public interface ReactiveMpaDao {
+    Flux<MpaRating> getAllMpaRatings();
+
+    Mono<MpaRating> getMpaById(int id);
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.data.dao;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+
+public interface ReactiveUserDao {
+    Mono<User> addUser(User user);
+
+    Mono<User> updateUser(User user);
+
+    Mono<User> getUser(long id);
+
+    Flux<User> getAllUsers();
+
+    Mono<Void> addFriend(long userId, long friendId);
+
+    Mono<Void> removeFriend(long userId, long friendId);
+
+    Flux<User> getFriends(long userId);
+
+    Flux<User> getCommonFriends(long userId, long otherId);
+
+    Mono<Boolean> userExists(long userId);
+}
@@ -1,28 +1,53 @@
 package ru.yandex.practicum.filmorate.data.dao;
 
 
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserDao {
     User addUser(User user);
 
+    List<User> addUsers(List<User> users);
+
     User updateUser(User user);
 
     User getUser(long id);
 
     List<User> getAllUsers();
 
+    List<User> getAllUsers(boolean withFriends);
+
+    List<User> getUsersPage(long afterId, int limit);
+
+    void streamAllUsers(Consumer<User> consumer);
+
     void addFriend(long userId, long friendId);
 
+    int addFriendships(List<Friendship> friendships);
+
     void confirmFriend(long userId, long friendId);
 
-    void removeFriend(long userId, long friendId);
+    boolean removeFriend(long userId, long friendId);
 
     List<User> getFriends(long userId);
 
+    List<User> getFriends(long userId, boolean withFriends);
+
+    List<User> getFriendsPage(long userId, long afterId, int limit);
+
     List<User> getCommonFriends(long userId, long otherId);
 
+    List<User> getCommonFriends(long userId, long otherId, boolean withFriends);
+
+    List<FriendSuggestion> getFriendSuggestions(long userId, int limit);
+
     boolean userExists(long userId);
+
+    Set<Long> findExistingUserIds(Collection<Long> userIds);
 }
\ No newline at end of file
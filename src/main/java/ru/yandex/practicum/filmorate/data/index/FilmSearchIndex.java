@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Обратный индекс по названию и описанию фильмов: для каждого терма хранится отсортированный массив
+ * film_id. Фильмы ранжируются по числу совпавших термов запроса, затем по числу лайков из
+ * {@link PopularityIndex}, затем по film_id. Обе величины упаковываются в один int, поэтому отбор
+ * лучших идёт через {@link LongIntCounter#topKeys(int)} без объектов на каждого кандидата.
+ */
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    static final int MAX_QUERY_TERMS = 16;
+    private static final int LIKES_BITS = 26;
+    private static final int MAX_RANKED_LIKES = (1 << LIKES_BITS) - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PopularityIndex popularityIndex;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, long[]> postings = new HashMap<>();
+    private final Map<Long, List<String>> termsByFilm = new HashMap<>();
+    private final RefreshOrder<Long> refreshOrder = new RefreshOrder<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    @Autowired
+    public FilmSearchIndex(JdbcTemplate jdbcTemplate, PopularityIndex popularityIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.popularityIndex = popularityIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long ticket = refreshOrder.nextTicket();
+        try {
+            Map<String, long[]> builtPostings = new HashMap<>();
+            Map<String, Integer> sizes = new HashMap<>();
+            Map<Long, List<String>> builtTerms = new HashMap<>();
+            jdbcTemplate.query("SELECT film_id, name, description FROM films ORDER BY film_id", rs -> {
+                long filmId = rs.getLong("film_id");
+                List<String> terms = filmTerms(rs.getString("name"), rs.getString("description"));
+                builtTerms.put(filmId, terms);
+                for (String term : terms) {
+                    int size = sizes.getOrDefault(term, 0);
+                    long[] filmIds = builtPostings.computeIfAbsent(term, key -> new long[4]);
+                    if (size == filmIds.length) {
+                        filmIds = Arrays.copyOf(filmIds, size * 2);
+                        builtPostings.put(term, filmIds);
+                    }
+                    filmIds[size] = filmId;
+                    sizes.put(term, size + 1);
+                }
+            });
+            builtPostings.replaceAll((term, filmIds) -> Arrays.copyOf(filmIds, sizes.get(term)));
+
+            lock.writeLock().lock();
+            try {
+                if (!refreshOrder.acceptRebuild(ticket)) {
+                    return;
+                }
+                Map<Long, List<String>> kept = new HashMap<>();
+                for (long filmId : refreshOrder.refreshedAfter(ticket)) {
+                    kept.put(filmId, termsByFilm.get(filmId));
+                }
+                postings.clear();
+                postings.putAll(builtPostings);
+                termsByFilm.clear();
+                termsByFilm.putAll(builtTerms);
+                applyTerms(kept);
+                refreshOrder.completeRebuild(ticket);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Поисковый индекс построен: {} фильмов, {} термов", builtTerms.size(), builtPostings.size());
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Индексирует записанные фильмы: каждый затронутый массив film_id сливается с новыми id один раз
+     * на весь пакет. Вызывается после коммита, чтобы откат не оставлял в индексе чужих фильмов.
+     */
+    public void indexFilms(Collection<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        try {
+            Map<Long, List<String>> terms = new HashMap<>();
+            for (Film film : films) {
+                terms.put(film.getId(), filmTerms(film.getName(), film.getDescription()));
+            }
+
+            lock.writeLock().lock();
+            try {
+                terms.keySet().removeIf(filmId -> !refreshOrder.accept(filmId, ticket));
+                applyTerms(terms);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    public long[] search(String query, int limit) {
+        List<String> terms = FilmSearchTokenizer.terms(query);
+        if (terms.isEmpty() || limit < 1) {
+            return SortedLongArrays.EMPTY;
+        }
+        ensureLoaded();
+
+        LongIntCounter matches = new LongIntCounter(64);
+        lock.readLock().lock();
+        try {
+            for (String term : terms.subList(0, Math.min(terms.size(), MAX_QUERY_TERMS))) {
+                for (long filmId : postings.getOrDefault(term, SortedLongArrays.EMPTY)) {
+                    matches.increment(filmId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        LongIntCounter ranked = new LongIntCounter(matches.size());
+        matches.forEach((filmId, matched) -> ranked.add(filmId,
+                matched << LIKES_BITS | Math.min(popularityIndex.getLikes(filmId), MAX_RANKED_LIKES)));
+        return ranked.topKeys(limit);
+    }
+
+    /**
+     * Заменяет термы фильмов (null — фильма нет в БД). Вызывается под блокировкой записи.
+     */
+    private void applyTerms(Map<Long, List<String>> newTermsByFilm) {
+        Map<String, List<Long>> removed = new HashMap<>();
+        Map<String, List<Long>> added = new HashMap<>();
+        newTermsByFilm.forEach((filmId, terms) -> {
+            List<String> previous = terms == null ? termsByFilm.remove(filmId) : termsByFilm.put(filmId, terms);
+            List<String> current = terms == null ? List.of() : terms;
+            if (previous != null) {
+                previous.stream().filter(term -> !current.contains(term))
+                        .forEach(term -> removed.computeIfAbsent(term, key -> new ArrayList<>()).add(filmId));
+            }
+            current.stream().filter(term -> previous == null || !previous.contains(term))
+                    .forEach(term -> added.computeIfAbsent(term, key -> new ArrayList<>()).add(filmId));
+        });
+        removed.forEach((term, filmIds) -> {
+            long[] remaining = SortedLongArrays.difference(postings.getOrDefault(term, SortedLongArrays.EMPTY),
+                    SortedLongArrays.sorted(filmIds));
+            if (remaining.length == 0) {
+                postings.remove(term);
+            } else {
+                postings.put(term, remaining);
+            }
+        });
+        added.forEach((term, filmIds) -> postings.put(term,
+                SortedLongArrays.union(postings.getOrDefault(term, SortedLongArrays.EMPTY),
+                        SortedLongArrays.sorted(filmIds))));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private static List<String> filmTerms(String name, String description) {
+        return FilmSearchTokenizer.terms(description == null ? name : name + " " + description);
+    }
+}
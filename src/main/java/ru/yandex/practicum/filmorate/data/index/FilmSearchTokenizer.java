@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Разбивает текст на термы поиска: нижний регистр, «ё» как «е», без стоп-слов и однобуквенных слов.
+ * Русские слова теряют одно самое длинное окончание из списка, английские — суффиксы -s, -es, -ies,
+ * -ed и -ing, причём удвоенная перед -ed/-ing согласная сокращается («running» → «run»).
+ * Это грубее полного стеммера, но сводит «фильм», «фильмы» и «фильмами» к одному терму.
+ */
+final class FilmSearchTokenizer {
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "не", "на", "с", "со", "по", "к", "ко", "о", "об", "от", "до", "за", "из", "у",
+            "а", "но", "что", "как", "это", "для", "же", "ли", "или", "то",
+            "the", "a", "an", "of", "and", "or", "in", "on", "at", "to", "for", "with", "is", "by");
+    private static final String[] RUSSIAN_ENDINGS = {
+            "ться", "ость", "ение", "ения", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ать", "ять", "ить", "еть", "тся",
+            "ых", "их", "ую", "юю", "ая", "яя", "ое", "ее", "ые", "ие", "ой", "ей", "ий", "ый",
+            "ам", "ям", "ах", "ях", "ом", "ем", "ов", "ев", "ии", "ию", "ия", "ье", "ья", "ью",
+            "ет", "ит", "ут", "ют", "ал", "ял", "ил", "ла", "ли", "ло",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"};
+
+    private FilmSearchTokenizer() {
+    }
+
+    static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = normalized.substring(start, i);
+                if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static String stem(String word) {
+        if (isCyrillic(word)) {
+            for (String ending : RUSSIAN_ENDINGS) {
+                if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                    return word.substring(0, word.length() - ending.length());
+                }
+            }
+            return word;
+        }
+        if (word.endsWith("ies") && word.length() > MIN_STEM_LENGTH + 2) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("sses") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        for (String suffix : new String[]{"ing", "ed"}) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return undouble(word.substring(0, word.length() - suffix.length()));
+            }
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && word.length() > MIN_STEM_LENGTH) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static String undouble(String stem) {
+        int last = stem.length() - 1;
+        char letter = stem.charAt(last);
+        if (last >= MIN_STEM_LENGTH && letter == stem.charAt(last - 1) && "aeioulsyz".indexOf(letter) < 0) {
+            return stem.substring(0, last);
+        }
+        return stem;
+    }
+
+    private static boolean isCyrillic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.UnicodeBlock.of(word.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
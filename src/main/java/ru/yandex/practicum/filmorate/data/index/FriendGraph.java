@@ -0,0 +1,217 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Граф дружбы в памяти: для каждого пользователя хранится отсортированный массив id друзей.
+ * Граф не правит массивы по добавленной или удалённой связи: после фиксации записи {@link #refresh}
+ * перечитывает из БД списки друзей затронутых пользователей и заменяет их массивы целиком,
+ * а порядок таких чтений и полной перестройки задаёт {@link RefreshOrder}.
+ * Отданный читателю массив больше не изменяется, поэтому его можно обходить без блокировки.
+ */
+@Slf4j
+@Component
+public class FriendGraph {
+    private static final long[] NO_FRIENDS = SortedLongArrays.EMPTY;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxFanOut;
+    private final long timeBudgetNanos;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, long[]> adjacency = new HashMap<>();
+    private final RefreshOrder<Long> refreshOrder = new RefreshOrder<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    @Autowired
+    public FriendGraph(
+            JdbcTemplate jdbcTemplate,
+            @Value("${filmorate.friends.suggestions.max-fan-out:1000}") int maxFanOut,
+            @Value("${filmorate.friends.suggestions.time-budget-ms:50}") long timeBudgetMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxFanOut = Math.max(maxFanOut, 1);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long ticket = refreshOrder.nextTicket();
+        try {
+            SortedLongArrays.Builder builder = new SortedLongArrays.Builder();
+            jdbcTemplate.query("SELECT user_id, friend_id FROM friends ORDER BY user_id, friend_id",
+                    rs -> {
+                        builder.add(rs.getLong("user_id"), rs.getLong("friend_id"));
+                    });
+            Map<Long, long[]> loadedAdjacency = builder.build();
+
+            lock.writeLock().lock();
+            try {
+                if (!refreshOrder.acceptRebuild(ticket)) {
+                    return;
+                }
+                Set<Long> newer = refreshOrder.refreshedAfter(ticket);
+                Map<Long, long[]> kept = new HashMap<>();
+                newer.forEach(userId -> {
+                    long[] friends = adjacency.get(userId);
+                    if (friends != null) {
+                        kept.put(userId, friends);
+                    }
+                });
+                adjacency.clear();
+                adjacency.putAll(loadedAdjacency);
+                adjacency.keySet().removeAll(newer);
+                adjacency.putAll(kept);
+                refreshOrder.completeRebuild(ticket);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Граф дружбы построен: {} пользователей, {} связей", loadedAdjacency.size(), builder.pairs());
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Возвращает отсортированный массив id друзей. Массив нельзя изменять.
+     */
+    public long[] getFriendIds(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return adjacency.getOrDefault(userId, NO_FRIENDS);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getCommonFriendIds(long userId, long otherId) {
+        return SortedLongArrays.intersect(getFriendIds(userId), getFriendIds(otherId));
+    }
+
+    public List<Candidate> suggestFriends(long userId, int limit) {
+        return suggestFriends(userId, limit, maxFanOut, timeBudgetNanos);
+    }
+
+    /**
+     * Кандидаты в друзья — друзья друзей, ранжированные по числу общих друзей.
+     * У пользователей с большим числом связей просматривается равномерная выборка не больше maxFanOut id,
+     * а по истечении бюджета времени обход прекращается и возвращается ранжирование по уже пройденной части.
+     */
+    public List<Candidate> suggestFriends(long userId, int limit, int maxFanOut, long timeBudgetNanos) {
+        ensureLoaded();
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        LongIntCounter counter;
+        int visitedFriends = 0;
+
+        lock.readLock().lock();
+        try {
+            long[] friends = adjacency.getOrDefault(userId, NO_FRIENDS);
+            counter = new LongIntCounter(Math.min(friends.length * 16, 1 << 16));
+            int friendStep = samplingStep(friends.length, maxFanOut);
+            for (int i = 0; i < friends.length; i += friendStep) {
+                if (System.nanoTime() > deadline) {
+                    log.debug("Обход друзей друзей пользователя {} прерван по времени после {} друзей",
+                            userId, visitedFriends);
+                    break;
+                }
+                long[] candidates = adjacency.getOrDefault(friends[i], NO_FRIENDS);
+                int candidateStep = samplingStep(candidates.length, maxFanOut);
+                for (int j = 0; j < candidates.length; j += candidateStep) {
+                    long candidate = candidates[j];
+                    if (candidate != userId && !SortedLongArrays.contains(friends, candidate)) {
+                        counter.increment(candidate);
+                    }
+                }
+                visitedFriends++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topCandidates(counter, limit);
+    }
+
+    /**
+     * Перечитывает списки друзей пользователей из БД. Вызывается после фиксации записи, затронувшей эти списки.
+     */
+    public void refresh(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        try {
+            SortedLongArrays.Builder builder = new SortedLongArrays.Builder();
+            String sql = "SELECT user_id, friend_id FROM friends WHERE user_id = ANY(?) ORDER BY user_id, friend_id";
+            jdbcTemplate.query(sql,
+                    rs -> {
+                        builder.add(rs.getLong("user_id"), rs.getLong("friend_id"));
+                    }, (Object) userIds.toArray(new Long[0]));
+            Map<Long, long[]> friendsByUser = builder.build();
+
+            lock.writeLock().lock();
+            try {
+                for (Long userId : userIds) {
+                    if (!refreshOrder.accept(userId, ticket)) {
+                        continue;
+                    }
+                    long[] friends = friendsByUser.get(userId);
+                    if (friends == null) {
+                        adjacency.remove(userId);
+                    } else {
+                        adjacency.put(userId, friends);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    private static int samplingStep(int length, int maxFanOut) {
+        return length <= maxFanOut ? 1 : (length + maxFanOut - 1) / maxFanOut;
+    }
+
+    private static List<Candidate> topCandidates(LongIntCounter counter, int limit) {
+        long[] userIds = counter.topKeys(limit);
+        List<Candidate> result = new ArrayList<>(userIds.length);
+        for (long candidateId : userIds) {
+            result.add(new Candidate(candidateId, counter.get(candidateId)));
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public record Candidate(long userId, int mutualFriends) {
+    }
+}
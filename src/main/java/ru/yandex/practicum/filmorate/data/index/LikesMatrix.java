@@ -0,0 +1,329 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Разреженная матрица лайков пользователь × фильм в памяти: для каждого пользователя отсортированный
+ * массив id понравившихся фильмов и для каждого фильма — массив id лайкнувших пользователей.
+ * Отображения — конкурентные карты с неизменяемыми массивами: запись подменяет массивы только затронутых
+ * пользователя и фильмов, поэтому лайк стоит O(лайков пользователя), а не O(пользователей + фильмов),
+ * и рекомендации считаются без блокировок. Перестройка собирает новую пару карт и подменяет её целиком.
+ * После фиксации записи матрица применяет записанные лайки без чтения БД,
+ * порядок применения и перестройки задаёт {@link RefreshOrder}.
+ */
+@Slf4j
+@Component
+public class LikesMatrix {
+    private static final int OVERLAP_TASK_THRESHOLD = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxNeighbours;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final RefreshOrder<Long> refreshOrder = new RefreshOrder<>();
+    private volatile Snapshot snapshot = new Snapshot(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    private volatile boolean loaded;
+
+    @Autowired
+    public LikesMatrix(
+            JdbcTemplate jdbcTemplate,
+            @Value("${filmorate.recommendations.max-neighbours:50}") int maxNeighbours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxNeighbours = Math.max(maxNeighbours, 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long ticket = refreshOrder.nextTicket();
+        try {
+            SortedLongArrays.Builder byUser = new SortedLongArrays.Builder();
+            jdbcTemplate.query("SELECT user_id, film_id FROM likes ORDER BY user_id, film_id", rs -> {
+                byUser.add(rs.getLong("user_id"), rs.getLong("film_id"));
+            });
+            Map<Long, long[]> filmsByUser = byUser.build();
+            Map<Long, long[]> usersByFilm;
+
+            writeLock.lock();
+            try {
+                if (!refreshOrder.acceptRebuild(ticket)) {
+                    return;
+                }
+                Set<Long> newer = refreshOrder.refreshedAfter(ticket);
+                filmsByUser.keySet().removeAll(newer);
+                newer.forEach(userId -> {
+                    long[] films = snapshot.filmsByUser().get(userId);
+                    if (films != null) {
+                        filmsByUser.put(userId, films);
+                    }
+                });
+                usersByFilm = invert(filmsByUser);
+                snapshot = new Snapshot(new ConcurrentHashMap<>(filmsByUser), new ConcurrentHashMap<>(usersByFilm));
+                refreshOrder.completeRebuild(ticket);
+                loaded = true;
+            } finally {
+                writeLock.unlock();
+            }
+            log.info("Матрица лайков построена: {} пользователей, {} фильмов, {} лайков",
+                    filmsByUser.size(), usersByFilm.size(), byUser.pairs());
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Возвращает отсортированный массив id фильмов, которые лайкнул пользователь. Массив нельзя изменять.
+     */
+    public long[] getLikedFilmIds(long userId) {
+        ensureLoaded();
+        return snapshot.filmsByUser().getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    /**
+     * Рекомендации по соседям: соседи — пользователи с наибольшим числом общих лайков,
+     * фильм получает сумму пересечений соседей, которые его лайкнули и которого у пользователя ещё нет.
+     * Пересечения считаются через fork-join по частям списка фильмов пользователя.
+     */
+    public long[] recommendFilmIds(long userId, int limit) {
+        ensureLoaded();
+        Snapshot snapshot = this.snapshot;
+        long[] liked = snapshot.filmsByUser().getOrDefault(userId, SortedLongArrays.EMPTY);
+        if (liked.length == 0 || limit <= 0) {
+            return SortedLongArrays.EMPTY;
+        }
+
+        LongIntCounter overlaps = ForkJoinPool.commonPool()
+                .invoke(new OverlapTask(snapshot.usersByFilm(), liked, 0, liked.length, userId));
+        long[] neighbours = overlaps.topKeys(maxNeighbours);
+
+        LongIntCounter scores = new LongIntCounter(neighbours.length * 16);
+        for (long neighbourId : neighbours) {
+            int overlap = overlaps.get(neighbourId);
+            for (long filmId : snapshot.filmsByUser().getOrDefault(neighbourId, SortedLongArrays.EMPTY)) {
+                if (!SortedLongArrays.contains(liked, filmId)) {
+                    scores.add(filmId, overlap);
+                }
+            }
+        }
+        return scores.topKeys(limit);
+    }
+
+    /**
+     * Применяет записанные лайки к матрице без обращения к БД: сначала добавленные, затем снятые, как их пишет
+     * репозиторий. Вызывается после фиксации. Пока матрица не загружена, пользователи перечитываются.
+     */
+    public void apply(Collection<Like> added, Collection<Like> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        if (!loaded) {
+            refresh(Stream.concat(added.stream(), removed.stream()).map(Like::getUserId).distinct().toList());
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            for (Like like : added) {
+                if (refreshOrder.acceptDelta(like.getUserId(), ticket)) {
+                    link(current.filmsByUser(), like.getUserId(), like.getFilmId());
+                    link(current.usersByFilm(), like.getFilmId(), like.getUserId());
+                }
+            }
+            for (Like like : removed) {
+                if (refreshOrder.acceptDelta(like.getUserId(), ticket)) {
+                    unlink(current.filmsByUser(), like.getUserId(), like.getFilmId());
+                    unlink(current.usersByFilm(), like.getFilmId(), like.getUserId());
+                }
+            }
+        } finally {
+            writeLock.unlock();
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Перечитывает лайки пользователей из БД. Вызывается после фиксации записи лайков этих пользователей.
+     */
+    public void refresh(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        try {
+            SortedLongArrays.Builder byUser = new SortedLongArrays.Builder();
+            jdbcTemplate.query("SELECT user_id, film_id FROM likes WHERE user_id = ANY(?) ORDER BY user_id, film_id",
+                    rs -> {
+                        byUser.add(rs.getLong("user_id"), rs.getLong("film_id"));
+                    }, (Object) userIds.toArray(new Long[0]));
+            Map<Long, long[]> loadedFilms = byUser.build();
+
+            writeLock.lock();
+            try {
+                Map<Long, long[]> filmsByUser = snapshot.filmsByUser();
+                Map<Long, long[]> usersByFilm = snapshot.usersByFilm();
+                for (Long userId : userIds) {
+                    if (!refreshOrder.accept(userId, ticket)) {
+                        continue;
+                    }
+                    long[] previous = filmsByUser.getOrDefault(userId, SortedLongArrays.EMPTY);
+                    long[] current = loadedFilms.getOrDefault(userId, SortedLongArrays.EMPTY);
+                    for (long filmId : previous) {
+                        if (!SortedLongArrays.contains(current, filmId)) {
+                            unlink(usersByFilm, filmId, userId);
+                        }
+                    }
+                    for (long filmId : current) {
+                        if (!SortedLongArrays.contains(previous, filmId)) {
+                            usersByFilm.put(filmId, SortedLongArrays.insert(
+                                    usersByFilm.getOrDefault(filmId, SortedLongArrays.EMPTY), userId));
+                        }
+                    }
+                    if (current.length == 0) {
+                        filmsByUser.remove(userId);
+                    } else {
+                        filmsByUser.put(userId, current);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Строит отображение фильм → пользователи из отображения пользователь → фильмы. Пользователи обходятся
+     * по возрастанию id, поэтому массивы пользователей получаются отсортированными без сортировки.
+     */
+    private static Map<Long, long[]> invert(Map<Long, long[]> filmsByUser) {
+        Map<Long, Integer> counts = new HashMap<>();
+        filmsByUser.values().forEach(films -> {
+            for (long filmId : films) {
+                counts.merge(filmId, 1, Integer::sum);
+            }
+        });
+        Map<Long, long[]> usersByFilm = new HashMap<>(counts.size() * 2);
+        counts.forEach((filmId, count) -> usersByFilm.put(filmId, new long[count]));
+        Map<Long, Integer> filled = new HashMap<>(counts.size() * 2);
+        long[] userIds = filmsByUser.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        for (long userId : userIds) {
+            for (long filmId : filmsByUser.get(userId)) {
+                int position = filled.merge(filmId, 1, Integer::sum) - 1;
+                usersByFilm.get(filmId)[position] = userId;
+            }
+        }
+        return usersByFilm;
+    }
+
+    private static void link(Map<Long, long[]> adjacency, long key, long value) {
+        long[] current = adjacency.getOrDefault(key, SortedLongArrays.EMPTY);
+        long[] updated = SortedLongArrays.insert(current, value);
+        if (updated != current) {
+            adjacency.put(key, updated);
+        }
+    }
+
+    private static void unlink(Map<Long, long[]> adjacency, long key, long value) {
+        long[] current = adjacency.get(key);
+        if (current == null) {
+            return;
+        }
+        long[] updated = SortedLongArrays.remove(current, value);
+        if (updated.length == 0) {
+            adjacency.remove(key);
+        } else if (updated != current) {
+            adjacency.put(key, updated);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Текущая карта пользователь → фильмы; нужна тестам, чтобы проверить, что запись не копирует карту.
+     */
+    Map<Long, long[]> filmsByUser() {
+        return snapshot.filmsByUser();
+    }
+
+    /**
+     * Пара отображений от одной перестройки. Массивы в картах не изменяются, запись подменяет их по ключу.
+     */
+    private record Snapshot(Map<Long, long[]> filmsByUser, Map<Long, long[]> usersByFilm) {
+    }
+
+    /**
+     * Считает для каждого другого пользователя число общих лайков по диапазону [from, to) фильмов.
+     */
+    private static final class OverlapTask extends RecursiveTask<LongIntCounter> {
+        private final Map<Long, long[]> usersByFilm;
+        private final long[] filmIds;
+        private final int from;
+        private final int to;
+        private final long excludedUserId;
+
+        OverlapTask(Map<Long, long[]> usersByFilm, long[] filmIds, int from, int to, long excludedUserId) {
+            this.usersByFilm = usersByFilm;
+            this.filmIds = filmIds;
+            this.from = from;
+            this.to = to;
+            this.excludedUserId = excludedUserId;
+        }
+
+        @Override
+        protected LongIntCounter compute() {
+            if (to - from <= OVERLAP_TASK_THRESHOLD) {
+                LongIntCounter counter = new LongIntCounter(64);
+                for (int i = from; i < to; i++) {
+                    for (long userId : usersByFilm.getOrDefault(filmIds[i], SortedLongArrays.EMPTY)) {
+                        if (userId != excludedUserId) {
+                            counter.increment(userId);
+                        }
+                    }
+                }
+                return counter;
+            }
+
+            int middle = (from + to) >>> 1;
+            OverlapTask left = new OverlapTask(usersByFilm, filmIds, from, middle, excludedUserId);
+            left.fork();
+            LongIntCounter right = new OverlapTask(usersByFilm, filmIds, middle, to, excludedUserId).compute();
+            LongIntCounter leftResult = left.join();
+            if (leftResult.size() >= right.size()) {
+                leftResult.addAll(right);
+                return leftResult;
+            }
+            right.addAll(leftResult);
+            return right;
+        }
+    }
+}
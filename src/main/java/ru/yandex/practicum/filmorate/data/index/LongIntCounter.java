@@ -0,0 +1,170 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+/**
+ * Счётчик long → int с открытой адресацией на примитивных массивах, без упаковки ключей в Long.
+ * Нулевое значение в values означает свободную ячейку, поэтому счётчики всегда положительные.
+ */
+final class LongIntCounter {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+
+    LongIntCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    int increment(long key) {
+        return add(key, 1);
+    }
+
+    int add(long key, int delta) {
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+        return delta;
+    }
+
+    void addAll(LongIntCounter other) {
+        other.forEach(this::add);
+    }
+
+    int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Возвращает до limit ключей по убыванию счётчика, при равенстве — по возрастанию ключа.
+     * Отбор идёт через min-кучу из номеров ячеек, без создания объектов на каждый ключ.
+     */
+    long[] topKeys(int limit) {
+        int capacity = Math.max(Math.min(limit, size), 0);
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length && capacity > 0; slot++) {
+            if (values[slot] == 0) {
+                continue;
+            }
+            if (heapSize < capacity) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (ranksBelow(heap[0], slot)) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        long[] result = new long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = keys[heap[0]];
+            heap[0] = heap[i];
+            siftDown(heap, i);
+        }
+        return result;
+    }
+
+    interface Visitor {
+        void visit(long key, int count);
+    }
+
+    private boolean ranksBelow(int slot, int other) {
+        return values[slot] < values[other] || values[slot] == values[other] && keys[slot] > keys[other];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBelow(heap[index], heap[parent])) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && ranksBelow(heap[left], heap[lowest])) {
+                lowest = left;
+            }
+            if (right < heapSize && ranksBelow(heap[right], heap[lowest])) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(heap, index, lowest);
+            index = lowest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(capacity - 1L);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
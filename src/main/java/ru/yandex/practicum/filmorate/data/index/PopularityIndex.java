@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Рейтинг фильмов по числу лайков, который держится в памяти и обновляется после каждой записи лайков.
+ * При равном числе лайков фильмы упорядочены по возрастанию film_id.
+ * После фиксации транзакции индекс сдвигает счётчики затронутых фильмов на известные приращения,
+ * а порядок применения относительно перестройки задаёт {@link RefreshOrder}, поэтому запись, пришедшая
+ * во время перестройки, не теряется, а откатившаяся транзакция индекс не меняет.
+ * Блокировка на время запросов к БД не держится.
+ */
+@Slf4j
+@Component
+public class PopularityIndex {
+    private static final Comparator<Entry> RANKING_ORDER = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING_ORDER);
+    private final RefreshOrder<Long> refreshOrder = new RefreshOrder<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    @Autowired
+    public PopularityIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long ticket = refreshOrder.nextTicket();
+        try {
+            String sql = "SELECT film_id, likes_count FROM films ORDER BY likes_count DESC, film_id";
+            List<Entry> loadedEntries = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new Entry(rs.getLong("film_id"), rs.getInt("likes_count")));
+
+            lock.writeLock().lock();
+            try {
+                if (!refreshOrder.acceptRebuild(ticket)) {
+                    return;
+                }
+                Set<Long> newer = refreshOrder.refreshedAfter(ticket);
+                List<Entry> kept = newer.stream().map(entries::get).filter(Objects::nonNull).toList();
+                entries.clear();
+                ranking.clear();
+                loadedEntries.stream().filter(entry -> !newer.contains(entry.filmId())).forEach(this::put);
+                kept.forEach(this::put);
+                refreshOrder.completeRebuild(ticket);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Индекс популярности построен: {} фильмов", loadedEntries.size());
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    public List<Long> getTopFilmIds(int count) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Long> filmIds = new ArrayList<>(Math.min(Math.max(count, 0), ranking.size()));
+            Iterator<Entry> iterator = ranking.iterator();
+            while (filmIds.size() < count && iterator.hasNext()) {
+                filmIds.add(iterator.next().filmId());
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getLikes(long filmId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry == null ? 0 : entry.likes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сдвигает число лайков фильмов на приращения, известные из самой записи, без обращения к БД.
+     * Вызывается после фиксации. Фильм, которого нет в индексе, новый и начинает с нуля лайков.
+     * Пока индекс не загружен, складывать не с чем, и фильмы перечитываются.
+     */
+    public void adjust(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (!loaded) {
+            refresh(deltas.keySet());
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        lock.writeLock().lock();
+        try {
+            deltas.forEach((filmId, delta) -> {
+                if (refreshOrder.acceptDelta(filmId, ticket)) {
+                    Entry entry = entries.get(filmId);
+                    put(new Entry(filmId, Math.max((entry == null ? 0 : entry.likes()) + delta, 0)));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+            refreshOrder.release(ticket);
+        }
+    }
+
+    /**
+     * Перечитывает likes_count фильмов из БД. Вызывается после фиксации записи, затронувшей эти фильмы.
+     */
+    public void refresh(Collection<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return;
+        }
+        long ticket = refreshOrder.nextTicket();
+        try {
+            Map<Long, Integer> likes = new HashMap<>();
+            jdbcTemplate.query("SELECT film_id, likes_count FROM films WHERE film_id = ANY(?)", rs -> {
+                likes.put(rs.getLong("film_id"), rs.getInt("likes_count"));
+            }, (Object) filmIds.toArray(new Long[0]));
+
+            lock.writeLock().lock();
+            try {
+                for (Long filmId : filmIds) {
+                    if (!refreshOrder.accept(filmId, ticket)) {
+                        continue;
+                    }
+                    Integer count = likes.get(filmId);
+                    if (count == null) {
+                        Entry previous = entries.remove(filmId);
+                        if (previous != null) {
+                            ranking.remove(previous);
+                        }
+                    } else {
+                        put(new Entry(filmId, count));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshOrder.release(ticket);
+        }
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.filmId(), entry);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(entry);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private record Entry(long filmId, int likes) {
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Порядок применения данных, перечитанных из БД, к индексу в памяти. Перед чтением берётся номер,
+ * и прочитанное по ключу применяется, только если по этому ключу ещё не применено более позднее чтение:
+ * чтения, завершившиеся не в том порядке, в каком начались, не откатывают индекс к старому состоянию.
+ * Полная перестройка тоже получает номер и не затирает ключи, перечитанные после её начала.
+ * Каждый номер возвращается через {@link #release(long)}, и запись о ключе удаляется, как только
+ * не остаётся незавершённых операций с более ранним номером, которым она нужна.
+ * Все методы, кроме {@link #nextTicket()} и {@link #release(long)}, вызываются под блокировкой записи индекса.
+ */
+final class RefreshOrder<K> {
+    private final Map<K, Long> refreshed = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+    private long lastTicket;
+    private long rebuildTicket;
+
+    synchronized long nextTicket() {
+        lastTicket++;
+        inFlight.add(lastTicket);
+        return lastTicket;
+    }
+
+    /**
+     * Завершает операцию с номером ticket, даже если она ничего не применила. Запись о ключе нужна только
+     * операциям, начатым раньше неё, поэтому удаляются записи старше самой ранней незавершённой операции.
+     */
+    void release(long ticket) {
+        long oldestInFlight;
+        synchronized (this) {
+            inFlight.remove(ticket);
+            oldestInFlight = inFlight.isEmpty() ? lastTicket + 1 : inFlight.first();
+        }
+        refreshed.values().removeIf(applied -> applied < oldestInFlight);
+    }
+
+    boolean accept(K key, long ticket) {
+        if (ticket <= rebuildTicket) {
+            return false;
+        }
+        Long applied = refreshed.get(key);
+        if (applied != null && applied > ticket) {
+            return false;
+        }
+        refreshed.put(key, ticket);
+        return true;
+    }
+
+    /**
+     * Приращение, в отличие от чтения, не заменяет состояние ключа, а сдвигает его, поэтому применяется
+     * при любом порядке номеров. Пропускается, только если перестройка взяла номер позже: номер приращения
+     * берётся после фиксации, и чтение такой перестройки эту запись уже видит.
+     */
+    boolean acceptDelta(K key, long ticket) {
+        if (ticket <= rebuildTicket) {
+            return false;
+        }
+        refreshed.merge(key, ticket, Math::max);
+        return true;
+    }
+
+    boolean acceptRebuild(long ticket) {
+        return ticket > rebuildTicket;
+    }
+
+    /**
+     * Ключи, перечитанные после начала перестройки с номером ticket: их текущее состояние новее перестройки.
+     */
+    Set<K> refreshedAfter(long ticket) {
+        Set<K> keys = new HashSet<>();
+        refreshed.forEach((key, applied) -> {
+            if (applied > ticket) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    void completeRebuild(long ticket) {
+        rebuildTicket = ticket;
+        refreshed.values().removeIf(applied -> applied <= ticket);
+    }
+
+    int size() {
+        return refreshed.size();
+    }
+}
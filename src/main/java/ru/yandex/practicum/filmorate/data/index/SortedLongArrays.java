@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Операции над отсортированными массивами id. Массивы не изменяются на месте: вставка и удаление
+ * возвращают новую копию, поэтому ранее отданный массив можно читать без блокировок.
+ */
+final class SortedLongArrays {
+    static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    static long[] insert(long[] values, long value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return values;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        return updated;
+    }
+
+    static long[] remove(long[] values, long value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return values;
+        }
+        long[] updated = new long[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(values, position + 1, updated, position, updated.length - position);
+        return updated;
+    }
+
+    static boolean contains(long[] values, long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    static long[] sorted(Collection<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Слияние двух отсортированных массивов без повторов за один проход.
+     */
+    static long[] union(long[] first, long[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        long[] result = new long[first.length + second.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || i < first.length && first[i] < second[j]) {
+                result[size++] = first[i++];
+            } else if (i == first.length || first[i] > second[j]) {
+                result[size++] = second[j++];
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    static long[] difference(long[] values, long[] removed) {
+        long[] result = new long[values.length];
+        int size = 0;
+        int j = 0;
+        for (long value : values) {
+            while (j < removed.length && removed[j] < value) {
+                j++;
+            }
+            if (j == removed.length || removed[j] != value) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? values : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Собирает массивы из пар (ключ, значение), отсортированных по ключу и значению, через общий буфер.
+     */
+    static final class Builder {
+        private final Map<Long, long[]> result = new HashMap<>();
+        private long[] buffer = new long[16];
+        private int size;
+        private long currentKey;
+        private long pairs;
+
+        void add(long key, long value) {
+            if (size > 0 && key != currentKey) {
+                flush();
+            }
+            currentKey = key;
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = value;
+            pairs++;
+        }
+
+        long pairs() {
+            return pairs;
+        }
+
+        Map<Long, long[]> build() {
+            if (size > 0) {
+                flush();
+            }
+            return result;
+        }
+
+        private void flush() {
+            result.put(currentKey, Arrays.copyOf(buffer, size));
+            size = 0;
+        }
+    }
+}
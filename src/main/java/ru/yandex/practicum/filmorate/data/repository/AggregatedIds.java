@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+final class AggregatedIds {
+    private AggregatedIds() {
+    }
+
+    static List<Long> parse(String ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).toList();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Определяет по сообщению драйвера, какое именованное ограничение из schema.sql нарушено.
+ * H2 и PostgreSQL включают имя ограничения в текст ошибки, отдельного кода для него нет.
+ */
+final class ConstraintViolations {
+    private ConstraintViolations() {
+    }
+
+    static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+}
@@ -2,32 +2,70 @@ package ru.yandex.practicum.filmorate.data.repository;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.data.dao.FilmDao;
-import ru.yandex.practicum.filmorate.data.dao.MpaDao;
+import ru.yandex.practicum.filmorate.data.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.data.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.data.index.PopularityIndex;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikesCountDrift;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Repository("FilmDao")
 public class JdbcFilmRepository implements FilmDao {
+    private static final String SELECT_FILMS = "SELECT f.* FROM films f ";
+    private static final String STREAM_FILMS = "SELECT f.*, " +
+            "(SELECT LISTAGG(CAST(l.user_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY l.user_id) " +
+            "FROM likes l WHERE l.film_id = f.film_id) AS like_ids, " +
+            "(SELECT LISTAGG(CAST(fg.genre_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY fg.genre_id) " +
+            "FROM film_genres fg WHERE fg.film_id = f.film_id) AS genre_ids " +
+            "FROM films f ORDER BY f.film_id ASC";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String FK_LIKES_FILM = "fk_likes_film";
+    private static final String FK_LIKES_USER = "fk_likes_user";
+
     private final JdbcTemplate jdbcTemplate;
-    private final MpaDao mpaDao;
+    private final ReferenceDataCache referenceData;
+    private final PopularityIndex popularityIndex;
+    private final LikesMatrix likesMatrix;
+    private final FilmSearchIndex searchIndex;
 
     @Autowired
-    public JdbcFilmRepository(JdbcTemplate jdbcTemplate, MpaDao mpaDao) {
+    public JdbcFilmRepository(JdbcTemplate jdbcTemplate, ReferenceDataCache referenceData,
+                              PopularityIndex popularityIndex, LikesMatrix likesMatrix,
+                              FilmSearchIndex searchIndex) {
         this.jdbcTemplate = jdbcTemplate;
-        this.mpaDao = mpaDao;
+        this.referenceData = referenceData;
+        this.popularityIndex = popularityIndex;
+        this.likesMatrix = likesMatrix;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -52,6 +90,8 @@ public class JdbcFilmRepository implements FilmDao {
             log.info("Фильм добавлен: id={}, name={}", film.getId(), film.getName());
 
             saveFilmGenres(film);
+            AfterCommit.run(() -> popularityIndex.adjust(Map.of(film.getId(), 0)));
+            AfterCommit.run(() -> searchIndex.indexFilms(List.of(film)));
             return film;
         } catch (Exception e) {
             log.error("Ошибка при добавлении фильма", e);
@@ -59,6 +99,59 @@ public class JdbcFilmRepository implements FilmDao {
         }
     }
 
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        log.debug("Пакетное добавление {} фильмов", films.size());
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        Film film = films.get(i);
+                        stmt.setString(1, film.getName());
+                        stmt.setString(2, film.getDescription());
+                        stmt.setDate(3, java.sql.Date.valueOf(film.getReleaseDate()));
+                        stmt.setInt(4, film.getDuration());
+                        stmt.setInt(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+
+        List<Object[]> genreRows = films.stream()
+                .filter(film -> film.getGenres() != null)
+                .flatMap(film -> film.getGenres().stream()
+                        .map(Genre::getId)
+                        .distinct()
+                        .map(genreId -> new Object[]{film.getId(), genreId}))
+                .toList();
+        if (!genreRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genreRows);
+        }
+
+        Map<Long, Integer> noLikes = films.stream().collect(Collectors.toMap(Film::getId, film -> 0));
+        AfterCommit.run(() -> popularityIndex.adjust(noLikes));
+        AfterCommit.run(() -> searchIndex.indexFilms(films));
+        log.info("Пакетно добавлено {} фильмов", films.size());
+        return films;
+    }
+
     @Override
     public Film updateFilm(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ? " +
@@ -77,55 +170,174 @@ public class JdbcFilmRepository implements FilmDao {
 
         jdbcTemplate.update("DELETE FROM film_genres WHERE film_id = ?", film.getId());
         saveFilmGenres(film);
+        AfterCommit.run(() -> searchIndex.indexFilms(List.of(film)));
 
         return film;
     }
 
     @Override
     public Film getFilm(long id) {
-        String sql = "SELECT * FROM films WHERE film_id = ?";
-        return jdbcTemplate.queryForObject(sql, this::mapRowToFilm, id);
+        String sql = SELECT_FILMS + "WHERE f.film_id = ?";
+        Film film;
+        try {
+            film = jdbcTemplate.queryForObject(sql, this::mapRowToFilm, id);
+        } catch (EmptyResultDataAccessException e) {
+            throw new NotFoundException("Фильм с id=" + id + " не найден");
+        }
+        loadLikes(List.of(film), "SELECT film_id, user_id FROM likes WHERE film_id = ?", id);
+        return film;
     }
 
     @Override
     public List<Film> getAllFilms() {
-        String sql = "SELECT * FROM films ORDER BY film_id ASC";
-        return jdbcTemplate.query(sql, this::mapRowToFilm);
+        String sql = SELECT_FILMS + "ORDER BY f.film_id ASC";
+        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm);
+        loadLikes(films, "SELECT film_id, user_id FROM likes");
+        return films;
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        log.debug("Добавление лайка: filmId={}, userId={}", filmId, userId);
-        if (!filmExists(filmId)) {
-            throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
         }
+        String sql = SELECT_FILMS + "WHERE f.film_id = ANY(?)";
+        Map<Long, Film> filmsById = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Film film = mapRowToFilm(rs, rs.getRow());
+            filmsById.put(film.getId(), film);
+        }, (Object) filmIds.toArray(new Long[0]));
 
-        String checkUserSql = "SELECT COUNT(*) FROM users WHERE user_id = ?";
-        Integer userCount = jdbcTemplate.queryForObject(checkUserSql, Integer.class, userId);
-        if (userCount == null || userCount == 0) {
-            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
-        }
+        List<Film> films = new ArrayList<>(filmIds.size());
+        filmIds.forEach(filmId -> {
+            Film film = filmsById.get(filmId);
+            if (film != null) {
+                films.add(film);
+            }
+        });
+        loadLikesByFilmIds(films);
+        return films;
+    }
+
+    @Override
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        String sql = SELECT_FILMS + "WHERE f.film_id > ? ORDER BY f.film_id ASC LIMIT ?";
+        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, afterId, limit);
+        loadLikesByFilmIds(films);
+        return films;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllFilms(Consumer<Film> consumer) {
+        log.debug("Потоковая выгрузка всех фильмов");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(STREAM_FILMS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            Film film = mapRowToFilm(rs, rs.getRow());
+            film.getLikes().addAll(AggregatedIds.parse(rs.getString("like_ids")));
+            Set<Genre> genres = new LinkedHashSet<>();
+            AggregatedIds.parse(rs.getString("genre_ids"))
+                    .forEach(genreId -> genres.add(referenceData.getGenre(genreId)));
+            film.setGenres(genres);
+            consumer.accept(film);
+        });
+    }
 
+    @Override
+    @Transactional
+    public void addLike(long filmId, long userId) {
+        log.debug("Добавление лайка: filmId={}, userId={}", filmId, userId);
         String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, filmId, userId);
+        try {
+            jdbcTemplate.update(sql, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            log.debug("Лайк уже поставлен: filmId={}, userId={}", filmId, userId);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, FK_LIKES_FILM)) {
+                throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+            }
+            if (ConstraintViolations.violates(e, FK_LIKES_USER)) {
+                throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+            }
+            throw e;
+        }
+        AfterCommit.run(() -> popularityIndex.adjust(Map.of(filmId, 1)));
+        AfterCommit.run(() -> likesMatrix.apply(List.of(new Like(filmId, userId)), List.of()));
     }
 
     @Override
-    public void removeLike(long filmId, long userId) {
+    @Transactional
+    public boolean removeLike(long filmId, long userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        int removed = jdbcTemplate.update(sql, filmId, userId);
+        if (removed > 0) {
+            AfterCommit.run(() -> popularityIndex.adjust(Map.of(filmId, -removed)));
+            AfterCommit.run(() -> likesMatrix.apply(List.of(), List.of(new Like(filmId, userId))));
+        }
+        return removed > 0;
+    }
+
+    @Override
+    @Transactional
+    public void applyLikes(Collection<Like> added, Collection<Like> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        if (!added.isEmpty()) {
+            String sql = "INSERT INTO likes (film_id, user_id) SELECT ?, ? " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+            List<Like> likes = List.copyOf(added);
+            int[] counts = jdbcTemplate.batchUpdate(sql, likes.stream()
+                    .map(like -> new Object[]{like.getFilmId(), like.getUserId(), like.getFilmId(), like.getUserId()})
+                    .toList());
+            collectDeltas(deltas, likes, counts, 1);
+        }
+        if (!removed.isEmpty()) {
+            String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+            List<Like> likes = List.copyOf(removed);
+            int[] counts = jdbcTemplate.batchUpdate(sql, likes.stream()
+                    .map(like -> new Object[]{like.getFilmId(), like.getUserId()})
+                    .toList());
+            collectDeltas(deltas, likes, counts, -1);
+        }
+
+        AfterCommit.run(() -> popularityIndex.adjust(deltas));
+        AfterCommit.run(() -> likesMatrix.apply(added, removed));
+        log.debug("Применён пакет лайков: добавлено={}, удалено={}, фильмов={}",
+                added.size(), removed.size(), deltas.size());
+    }
+
+    /**
+     * Складывает изменения likes_count по фильмам из числа строк, затронутых каждым оператором пакета.
+     */
+    private static void collectDeltas(Map<Long, Integer> deltas, List<Like> likes, int[] counts, int sign) {
+        for (int i = 0; i < likes.size(); i++) {
+            deltas.merge(likes.get(i).getFilmId(), sign * Math.max(counts[i], 0), Integer::sum);
+        }
     }
 
     @Override
     public List<Film> getPopularFilms(int count) {
         log.debug("Получение {} популярных фильмов", count);
-        String sql = "SELECT f.*, COUNT(l.user_id) as likes_count FROM films f " +
-                "LEFT JOIN likes l ON f.film_id = l.film_id " +
-                "GROUP BY f.film_id " +
-                "ORDER BY likes_count DESC " +
-                "LIMIT ?";
+        return getFilmsByIds(popularityIndex.getTopFilmIds(count));
+    }
 
-        return jdbcTemplate.query(sql, this::mapRowToFilm, count);
+    @Override
+    public List<Film> searchFilms(String query, int limit) {
+        log.debug("Поиск фильмов: query={}, limit={}", query, limit);
+        return getFilmsByIds(Arrays.stream(searchIndex.search(query, limit)).boxed().toList());
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(long userId, int count) {
+        log.debug("Получение {} рекомендаций для пользователя {}", count, userId);
+        return getFilmsByIds(Arrays.stream(likesMatrix.recommendFilmIds(userId, count)).boxed().toList());
     }
 
     private Film mapRowToFilm(ResultSet rs, int rowNum) throws SQLException {
@@ -135,17 +347,39 @@ public class JdbcFilmRepository implements FilmDao {
         film.setDescription(rs.getString("description"));
         film.setReleaseDate(rs.getDate("release_date").toLocalDate());
         film.setDuration(rs.getInt("duration"));
+        film.setLikesCount(rs.getInt("likes_count"));
 
         int mpaId = rs.getInt("mpa_id");
-        film.setMpa(mpaDao.getMpaById(mpaId));
+        if (!rs.wasNull()) {
+            film.setMpa(referenceData.getMpa(mpaId));
+        }
 
         film.setGenres(new HashSet<>());
+        return film;
+    }
+
+    private void loadLikesByFilmIds(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Long[] filmIds = films.stream().map(Film::getId).toArray(Long[]::new);
+        loadLikes(films, "SELECT film_id, user_id FROM likes WHERE film_id = ANY(?)", (Object) filmIds);
+    }
 
-        String likesSql = "SELECT user_id FROM likes WHERE film_id = ?";
-        List<Long> likes = jdbcTemplate.queryForList(likesSql, Long.class, film.getId());
-        film.getLikes().addAll(likes);
+    private void loadLikes(List<Film> films, String sql, Object... args) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Map<Long, Film> filmsById = new HashMap<>();
+        films.forEach(film -> filmsById.put(film.getId(), film));
 
-        return film;
+        jdbcTemplate.query(sql, rs -> {
+            Film film = filmsById.get(rs.getLong("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getLong("user_id"));
+            }
+        }, args);
+        log.debug("Загружены лайки для {} фильмов", films.size());
     }
 
     private void saveFilmGenres(Film film) {
@@ -168,4 +402,31 @@ public class JdbcFilmRepository implements FilmDao {
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, filmId);
         return count != null && count > 0;
     }
+
+    @Override
+    public List<LikesCountDrift> findLikesCountDrift() {
+        String sql = "SELECT f.film_id, f.likes_count, COUNT(l.user_id) AS actual_count FROM films f " +
+                "LEFT JOIN likes l ON f.film_id = l.film_id " +
+                "GROUP BY f.film_id, f.likes_count " +
+                "HAVING f.likes_count <> COUNT(l.user_id) " +
+                "ORDER BY f.film_id";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new LikesCountDrift(
+                rs.getLong("film_id"),
+                rs.getInt("likes_count"),
+                rs.getInt("actual_count")));
+    }
+
+    @Override
+    @Transactional
+    public int repairLikesCount() {
+        String sql = "UPDATE films f SET likes_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id) " +
+                "WHERE likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)";
+        int repaired = jdbcTemplate.update(sql);
+        if (repaired > 0) {
+            log.warn("Исправлено расхождение likes_count у {} фильмов", repaired);
+            AfterCommit.run(popularityIndex::rebuild);
+        }
+        return repaired;
+    }
 }
\ No newline at end of file
@@ -9,8 +9,12 @@ import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -46,6 +50,37 @@ public class JdbcGenreRepository implements GenreDao {
         return new HashSet<>(jdbcTemplate.query(sql, this::mapRowToGenre, filmId));
     }
 
+    @Override
+    public Map<Long, Set<Genre>> getGenresByFilmIds(Collection<Long> filmIds) {
+        Map<Long, Set<Genre>> genresByFilmId = new HashMap<>();
+        if (filmIds == null || filmIds.isEmpty()) {
+            return genresByFilmId;
+        }
+
+        String sql = "SELECT fg.film_id, g.* FROM film_genres fg JOIN genres g ON g.genre_id = fg.genre_id " +
+                "WHERE fg.film_id = ANY(?) ORDER BY fg.film_id, g.genre_id";
+        jdbcTemplate.query(sql, rs -> {
+            genresByFilmId.computeIfAbsent(rs.getLong("film_id"), id -> new LinkedHashSet<>())
+                    .add(mapRowToGenre(rs, rs.getRow()));
+        }, (Object) filmIds.toArray(new Long[0]));
+        return genresByFilmId;
+    }
+
+    /**
+     * Жанры всех фильмов одним проходом по film_genres, без списка id в параметре запроса.
+     */
+    @Override
+    public Map<Long, Set<Genre>> getGenresOfAllFilms() {
+        Map<Long, Set<Genre>> genresByFilmId = new HashMap<>();
+        String sql = "SELECT fg.film_id, g.* FROM film_genres fg JOIN genres g ON g.genre_id = fg.genre_id " +
+                "ORDER BY fg.film_id, g.genre_id";
+        jdbcTemplate.query(sql, rs -> {
+            genresByFilmId.computeIfAbsent(rs.getLong("film_id"), id -> new LinkedHashSet<>())
+                    .add(mapRowToGenre(rs, rs.getRow()));
+        });
+        return genresByFilmId;
+    }
+
     @Override
     public List<Genre> getByIds(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
@@ -2,28 +2,53 @@ package ru.yandex.practicum.filmorate.data.repository;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.data.dao.UserDao;
+import ru.yandex.practicum.filmorate.data.index.FriendGraph;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository("UserDao")
 public class JdbcUserRepository implements UserDao {
+    private static final String STREAM_USERS = "SELECT u.*, " +
+            "(SELECT LISTAGG(CAST(f.friend_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY f.friend_id) " +
+            "FROM friends f WHERE f.user_id = u.user_id) AS friend_ids " +
+            "FROM users u ORDER BY u.user_id ASC";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String FK_FRIENDS_USER = "fk_friends_user";
+    private static final String FK_FRIENDS_FRIEND = "fk_friends_friend";
+
     private final JdbcTemplate jdbcTemplate;
+    private final FriendGraph friendGraph;
 
     @Autowired
-    public JdbcUserRepository(JdbcTemplate jdbcTemplate) {
+    public JdbcUserRepository(JdbcTemplate jdbcTemplate, FriendGraph friendGraph) {
         this.jdbcTemplate = jdbcTemplate;
+        this.friendGraph = friendGraph;
     }
 
     public User addUser(User user) {
@@ -50,6 +75,41 @@ public class JdbcUserRepository implements UserDao {
         }
     }
 
+    @Override
+    @Transactional
+    public List<User> addUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        User user = users.get(i);
+                        stmt.setString(1, user.getEmail());
+                        stmt.setString(2, user.getLogin());
+                        stmt.setString(3, user.getName());
+                        stmt.setDate(4, user.getBirthday() == null ? null : java.sql.Date.valueOf(user.getBirthday()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        log.info("Пакетно добавлено {} пользователей", users.size());
+        return users;
+    }
+
     @Override
     public User updateUser(User user) {
         String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
@@ -72,6 +132,7 @@ public class JdbcUserRepository implements UserDao {
         try {
             String sql = "SELECT * FROM users WHERE user_id = ?";
             User user = jdbcTemplate.queryForObject(sql, this::mapRowToUser, id);
+            loadFriends(List.of(user), "SELECT user_id, friend_id FROM friends WHERE user_id = ?", id);
             log.debug("Найден пользователь: {}", user);
             return user;
         } catch (EmptyResultDataAccessException e) {
@@ -82,28 +143,81 @@ public class JdbcUserRepository implements UserDao {
 
     @Override
     public List<User> getAllUsers() {
+        return getAllUsers(true);
+    }
+
+    @Override
+    public List<User> getAllUsers(boolean withFriends) {
         String sql = "SELECT * FROM users ORDER BY user_id ASC";
-        return jdbcTemplate.query(sql, this::mapRowToUser);
+        List<User> users = jdbcTemplate.query(sql, this::mapRowToUser);
+        if (withFriends) {
+            loadFriends(users, "SELECT user_id, friend_id FROM friends");
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        String sql = "SELECT * FROM users WHERE user_id > ? ORDER BY user_id ASC LIMIT ?";
+        List<User> users = jdbcTemplate.query(sql, this::mapRowToUser, afterId, limit);
+        loadFriendsByUserIds(users);
+        return users;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        log.debug("Потоковая выгрузка всех пользователей");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(STREAM_USERS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return stmt;
+        }, rs -> {
+            User user = mapRowToUser(rs, rs.getRow());
+            user.getFriends().addAll(AggregatedIds.parse(rs.getString("friend_ids")));
+            consumer.accept(user);
+        });
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
         log.debug("Добавление в друзья: {} -> {}", userId, friendId);
-        if (!userExists(userId)) {
-            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
-        }
-        if (!userExists(friendId)) {
-            throw new NotFoundException("Пользователь с id=" + friendId + " не найден");
-        }
-
         String sql = "INSERT INTO friends (user_id, friend_id, confirmed) VALUES (?, ?, false)";
         try {
-            int rows = jdbcTemplate.update(sql, userId, friendId);
-            log.info("Дружба добавлена: {} -> {} ({} rows affected)", userId, friendId, rows);
-        } catch (Exception e) {
-            log.error("Ошибка при добавлении в друзья", e);
+            jdbcTemplate.update(sql, userId, friendId);
+        } catch (DuplicateKeyException e) {
+            log.debug("Дружба уже есть: {} -> {}", userId, friendId);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, FK_FRIENDS_USER)) {
+                throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+            }
+            if (ConstraintViolations.violates(e, FK_FRIENDS_FRIEND)) {
+                throw new NotFoundException("Пользователь с id=" + friendId + " не найден");
+            }
             throw e;
         }
+        AfterCommit.run(() -> friendGraph.refresh(List.of(userId)));
+        log.info("Дружба добавлена: {} -> {}", userId, friendId);
+    }
+
+    @Override
+    @Transactional
+    public int addFriendships(List<Friendship> friendships) {
+        if (friendships.isEmpty()) {
+            return 0;
+        }
+        String sql = "INSERT INTO friends (user_id, friend_id, confirmed) SELECT ?, ?, false " +
+                "WHERE NOT EXISTS (SELECT 1 FROM friends WHERE user_id = ? AND friend_id = ?)";
+        int[] counts = jdbcTemplate.batchUpdate(sql, friendships.stream()
+                .map(f -> new Object[]{f.getUserId(), f.getFriendId(), f.getUserId(), f.getFriendId()})
+                .toList());
+        int inserted = Arrays.stream(counts).map(count -> Math.max(count, 0)).sum();
+        List<Long> userIds = friendships.stream().map(Friendship::getUserId).distinct().toList();
+        AfterCommit.run(() -> friendGraph.refresh(userIds));
+        log.info("Пакетно добавлено {} связей дружбы из {}", inserted, friendships.size());
+        return inserted;
     }
 
     public void confirmFriend(long userId, long friendId) {
@@ -118,27 +232,83 @@ public class JdbcUserRepository implements UserDao {
     }
 
     @Override
-    public void removeFriend(long userId, long friendId) {
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        Set<Long> existing = new HashSet<>();
+        if (userIds.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query("SELECT user_id FROM users WHERE user_id = ANY(?)",
+                rs -> {
+                    existing.add(rs.getLong("user_id"));
+                }, (Object) userIds.toArray(new Long[0]));
+        return existing;
+    }
+
+    @Override
+    public boolean removeFriend(long userId, long friendId) {
         String sql = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        if (jdbcTemplate.update(sql, userId, friendId) > 0) {
+            AfterCommit.run(() -> friendGraph.refresh(List.of(userId)));
+            return true;
+        }
+        return false;
     }
 
     @Override
     public List<User> getFriends(long userId) {
+        return getFriends(userId, true);
+    }
+
+    @Override
+    public List<User> getFriends(long userId, boolean withFriends) {
         log.debug("Получение друзей пользователя {}", userId);
-        String sql = "SELECT u.* FROM users u JOIN friends f ON u.user_id = f.friend_id WHERE f.user_id = ?";
-        List<User> friends = jdbcTemplate.query(sql, this::mapRowToUser, userId);
+        List<User> friends = getUsersByIds(friendGraph.getFriendIds(userId));
+        if (withFriends) {
+            fillFriendsFromGraph(friends);
+        }
         log.debug("Найдено {} друзей для пользователя {}", friends.size(), userId);
         return friends;
     }
 
+    @Override
+    public List<User> getFriendsPage(long userId, long afterId, int limit) {
+        String sql = "SELECT u.* FROM users u JOIN friends f ON u.user_id = f.friend_id " +
+                "WHERE f.user_id = ? AND u.user_id > ? ORDER BY u.user_id ASC LIMIT ?";
+        List<User> friends = jdbcTemplate.query(sql, this::mapRowToUser, userId, afterId, limit);
+        loadFriendsByUserIds(friends);
+        return friends;
+    }
+
     @Override
     public List<User> getCommonFriends(long userId, long otherId) {
-        String sql = "SELECT u.* FROM users u " +
-                "JOIN friends f1 ON u.user_id = f1.friend_id " +
-                "JOIN friends f2 ON u.user_id = f2.friend_id " +
-                "WHERE f1.user_id = ? AND f2.user_id = ?";
-        return jdbcTemplate.query(sql, this::mapRowToUser, userId, otherId);
+        return getCommonFriends(userId, otherId, true);
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherId, boolean withFriends) {
+        List<User> commonFriends = getUsersByIds(friendGraph.getCommonFriendIds(userId, otherId));
+        if (withFriends) {
+            fillFriendsFromGraph(commonFriends);
+        }
+        return commonFriends;
+    }
+
+    @Override
+    public List<FriendSuggestion> getFriendSuggestions(long userId, int limit) {
+        List<FriendGraph.Candidate> candidates = friendGraph.suggestFriends(userId, limit);
+        Map<Long, User> usersById = new HashMap<>();
+        getUsersByIds(candidates.stream().mapToLong(FriendGraph.Candidate::userId).toArray())
+                .forEach(user -> usersById.put(user.getId(), user));
+        fillFriendsFromGraph(usersById.values());
+
+        List<FriendSuggestion> suggestions = new ArrayList<>(candidates.size());
+        for (FriendGraph.Candidate candidate : candidates) {
+            User user = usersById.get(candidate.userId());
+            if (user != null) {
+                suggestions.add(new FriendSuggestion(user, candidate.mutualFriends()));
+            }
+        }
+        return suggestions;
     }
 
     private User mapRowToUser(ResultSet rs, int rowNum) throws SQLException {
@@ -148,11 +318,47 @@ public class JdbcUserRepository implements UserDao {
         user.setLogin(rs.getString("login"));
         user.setName(rs.getString("name"));
         user.setBirthday(rs.getDate("birthday").toLocalDate());
+        return user;
+    }
 
-        String friendsSql = "SELECT friend_id FROM friends WHERE user_id = ?";
-        List<Long> friends = jdbcTemplate.queryForList(friendsSql, Long.class, user.getId());
-        user.getFriends().addAll(friends);
+    private List<User> getUsersByIds(long[] userIds) {
+        if (userIds.length == 0) {
+            return new ArrayList<>();
+        }
+        Long[] ids = Arrays.stream(userIds).boxed().toArray(Long[]::new);
+        return jdbcTemplate.query("SELECT * FROM users WHERE user_id = ANY(?) ORDER BY user_id",
+                this::mapRowToUser, (Object) ids);
+    }
 
-        return user;
+    private void fillFriendsFromGraph(Collection<User> users) {
+        for (User user : users) {
+            for (long friendId : friendGraph.getFriendIds(user.getId())) {
+                user.getFriends().add(friendId);
+            }
+        }
+    }
+
+    private void loadFriendsByUserIds(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Long[] userIds = users.stream().map(User::getId).toArray(Long[]::new);
+        loadFriends(users, "SELECT user_id, friend_id FROM friends WHERE user_id = ANY(?)", (Object) userIds);
+    }
+
+    private void loadFriends(List<User> users, String sql, Object... args) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, User> usersById = new HashMap<>();
+        users.forEach(user -> usersById.put(user.getId(), user));
+
+        jdbcTemplate.query(sql, rs -> {
+            User user = usersById.get(rs.getLong("user_id"));
+            if (user != null) {
+                user.getFriends().add(rs.getLong("friend_id"));
+            }
+        }, args);
+        log.debug("Загружены друзья для {} пользователей", users.size());
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Триггер H2 на вставку и удаление строк likes: сдвигает films.likes_count внутри того же оператора,
+ * поэтому запись лайка остаётся одним обращением к БД. Подключается в schema.sql.
+ */
+public class LikesCountTrigger implements Trigger {
+    private static final String UPDATE_SQL = "UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?";
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        Object[] row = newRow != null ? newRow : oldRow;
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+            statement.setInt(1, newRow != null ? 1 : -1);
+            statement.setObject(2, row[0]);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Подключение R2DBC для профиля reactive к той же базе H2, что и JDBC: адрес и учётные данные берутся
+ * из spring.datasource.*, поэтому схема и данные, созданные spring.sql.init, видны обоим стекам.
+ * Пул не объявлен бином ConnectionFactory: иначе Spring Boot отключил бы JDBC DataSource.
+ * Драйвер H2 выполняет запросы синхронно в вызывающем потоке, поэтому все обращения к БД
+ * переносятся на отдельный ограниченный планировщик и не занимают потоки событий Netty.
+ */
+@Slf4j
+@Configuration
+@Profile("reactive")
+public class R2dbcConfiguration {
+    private static final String JDBC_H2_PREFIX = "jdbc:h2:";
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfiguration(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${filmorate.r2dbc.pool.max-size:16}") int maxSize) {
+        if (!url.startsWith(JDBC_H2_PREFIX)) {
+            throw new IllegalStateException("Профиль reactive поддерживает только H2, а задан " + url);
+        }
+        H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+                .url(url.substring(JDBC_H2_PREFIX.length()))
+                .username(username)
+                .password(password)
+                .build();
+        this.connectionPool = new ConnectionPool(
+                ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration))
+                        .maxSize(maxSize)
+                        .build());
+        log.info("Пул R2DBC создан: {}, до {} соединений", url, maxSize);
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler r2dbcScheduler(@Value("${filmorate.r2dbc.pool.max-size:16}") int maxSize) {
+        return Schedulers.newBoundedElastic(maxSize, Integer.MAX_VALUE, "r2dbc-h2");
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        connectionPool.dispose();
+    }
+}
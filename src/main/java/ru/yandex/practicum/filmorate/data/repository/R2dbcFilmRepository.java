@@ -0,0 +1,201 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveFilmDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * R2DBC-вариант {@link JdbcFilmRepository} для профиля reactive. Лайки и жанры фильма собираются
+ * в том же запросе через LISTAGG, поэтому фильмы отдаются потоком без отдельных запросов на каждый.
+ * Популярные фильмы берутся по индексу likes_count в БД: индексы в памяти обновляются только JDBC-стеком.
+ */
+@Slf4j
+@Profile("reactive")
+@Repository
+public class R2dbcFilmRepository implements ReactiveFilmDao {
+    private static final String SELECT_FILMS = "SELECT f.*, " +
+            "(SELECT LISTAGG(CAST(l.user_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY l.user_id) " +
+            "FROM likes l WHERE l.film_id = f.film_id) AS like_ids, " +
+            "(SELECT LISTAGG(CAST(fg.genre_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY fg.genre_id) " +
+            "FROM film_genres fg WHERE fg.film_id = f.film_id) AS genre_ids " +
+            "FROM films f ";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Scheduler scheduler;
+    private final ReferenceDataCache referenceData;
+
+    @Autowired
+    public R2dbcFilmRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                               Scheduler scheduler, ReferenceDataCache referenceData) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.scheduler = scheduler;
+        this.referenceData = referenceData;
+    }
+
+    @Override
+    public Mono<Film> addFilm(Film film) {
+        log.debug("Добавление фильма: name={}, releaseDate={}", film.getName(), film.getReleaseDate());
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "VALUES (:name, :description, :releaseDate, :duration, :mpaId)";
+        return bindFilm(databaseClient.sql(sql), film)
+                .filter(statement -> statement.returnGeneratedValues("film_id"))
+                .map(row -> row.get("film_id", Long.class))
+                .one()
+                .flatMap(id -> {
+                    film.setId(id);
+                    return saveFilmGenres(film);
+                })
+                .thenReturn(film)
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(added -> log.info("Фильм добавлен: id={}, name={}", added.getId(), added.getName()))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Film> updateFilm(Film film) {
+        String sql = "UPDATE films SET name = :name, description = :description, release_date = :releaseDate, " +
+                "duration = :duration, mpa_id = :mpaId WHERE film_id = :id";
+        return bindFilm(databaseClient.sql(sql), film)
+                .bind("id", film.getId())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new NotFoundException("Фильм с id=" + film.getId() + " не найден"))
+                        : databaseClient.sql("DELETE FROM film_genres WHERE film_id = :id")
+                        .bind("id", film.getId())
+                        .then())
+                .then(Mono.defer(() -> saveFilmGenres(film)))
+                .thenReturn(film)
+                .as(transactionalOperator::transactional)
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Film> getFilm(long id) {
+        return databaseClient.sql(SELECT_FILMS + "WHERE f.film_id = :id")
+                .bind("id", id)
+                .map(this::mapRowToFilm)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<Film> getAllFilms() {
+        return databaseClient.sql(SELECT_FILMS + "ORDER BY f.film_id ASC")
+                .map(this::mapRowToFilm)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Void> addLike(long filmId, long userId) {
+        log.debug("Добавление лайка: filmId={}, userId={}", filmId, userId);
+        String sql = "INSERT INTO likes (film_id, user_id) SELECT :filmId, :userId " +
+                "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = :filmId AND user_id = :userId)";
+        return databaseClient.sql(sql)
+                .bind("filmId", filmId)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Void> removeLike(long filmId, long userId) {
+        return databaseClient.sql("DELETE FROM likes WHERE film_id = :filmId AND user_id = :userId")
+                .bind("filmId", filmId)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<Film> getPopularFilms(int count) {
+        log.debug("Получение {} популярных фильмов", count);
+        return databaseClient.sql(SELECT_FILMS + "ORDER BY f.likes_count DESC, f.film_id ASC LIMIT :count")
+                .bind("count", count)
+                .map(this::mapRowToFilm)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Boolean> filmExists(long filmId) {
+        return databaseClient.sql("SELECT 1 FROM films WHERE film_id = :id")
+                .bind("id", filmId)
+                .fetch()
+                .first()
+                .hasElement()
+                .subscribeOn(scheduler);
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindFilm(DatabaseClient.GenericExecuteSpec spec, Film film) {
+        spec = spec.bind("name", film.getName())
+                .bind("releaseDate", film.getReleaseDate())
+                .bind("duration", film.getDuration())
+                .bind("mpaId", film.getMpa().getId());
+        return film.getDescription() == null
+                ? spec.bindNull("description", String.class)
+                : spec.bind("description", film.getDescription());
+    }
+
+    private Mono<Void> saveFilmGenres(Film film) {
+        if (film.getGenres() == null || film.getGenres().isEmpty()) {
+            return Mono.empty();
+        }
+        log.debug("Сохранение {} жанров для фильма {}", film.getGenres().size(), film.getId());
+        return Flux.fromIterable(film.getGenres())
+                .map(Genre::getId)
+                .distinct()
+                .concatMap(genreId -> databaseClient.sql(
+                                "INSERT INTO film_genres (film_id, genre_id) VALUES (:filmId, :genreId)")
+                        .bind("filmId", film.getId())
+                        .bind("genreId", genreId)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+
+    private Film mapRowToFilm(Readable row) {
+        Film film = new Film();
+        film.setId(row.get("film_id", Long.class));
+        film.setName(row.get("name", String.class));
+        film.setDescription(row.get("description", String.class));
+        film.setReleaseDate(row.get("release_date", LocalDate.class));
+        film.setDuration(row.get("duration", Integer.class));
+        film.setLikesCount(row.get("likes_count", Integer.class));
+
+        Integer mpaId = row.get("mpa_id", Integer.class);
+        if (mpaId != null) {
+            film.setMpa(referenceData.getMpa(mpaId));
+        }
+
+        film.getLikes().addAll(AggregatedIds.parse(row.get("like_ids", String.class)));
+        Set<Genre> genres = new LinkedHashSet<>();
+        AggregatedIds.parse(row.get("genre_ids", String.class))
+                .forEach(genreId -> genres.add(referenceData.getGenre(genreId)));
+        film.setGenres(genres);
+        return film;
+    }
+}
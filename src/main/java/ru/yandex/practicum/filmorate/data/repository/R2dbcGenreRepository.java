@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveGenreDao;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Collection;
+
+@Profile("reactive")
+@Repository
+public class R2dbcGenreRepository implements ReactiveGenreDao {
+    private final DatabaseClient databaseClient;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public R2dbcGenreRepository(DatabaseClient databaseClient, Scheduler scheduler) {
+        this.databaseClient = databaseClient;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<Genre> getAllGenres() {
+        return databaseClient.sql("SELECT * FROM genres ORDER BY genre_id")
+                .map(this::mapRowToGenre)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<Genre> getByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("SELECT * FROM genres WHERE genre_id IN (:ids) ORDER BY genre_id")
+                .bind("ids", ids)
+                .map(this::mapRowToGenre)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Genre> getGenreById(int genreId) {
+        return databaseClient.sql("SELECT * FROM genres WHERE genre_id = :id")
+                .bind("id", genreId)
+                .map(this::mapRowToGenre)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    private Genre mapRowToGenre(Readable row) {
+        return new Genre(row.get("genre_id", Integer.class), row.get("name", String.class));
+    }
+}
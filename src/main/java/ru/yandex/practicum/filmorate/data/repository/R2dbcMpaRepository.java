@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveMpaDao;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+@Profile("reactive")
+@Repository
+public class R2dbcMpaRepository implements ReactiveMpaDao {
+    private final DatabaseClient databaseClient;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public R2dbcMpaRepository(DatabaseClient databaseClient, Scheduler scheduler) {
+        this.databaseClient = databaseClient;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<MpaRating> getAllMpaRatings() {
+        return databaseClient.sql("SELECT * FROM mpa_ratings ORDER BY mpa_id")
+                .map(this::mapRowToMpa)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<MpaRating> getMpaById(int id) {
+        return databaseClient.sql("SELECT * FROM mpa_ratings WHERE mpa_id = :id")
+                .bind("id", id)
+                .map(this::mapRowToMpa)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    private MpaRating mapRowToMpa(Readable row) {
+        return new MpaRating(
+                row.get("mpa_id", Integer.class),
+                row.get("name", String.class),
+                row.get("description", String.class)
+        );
+    }
+}
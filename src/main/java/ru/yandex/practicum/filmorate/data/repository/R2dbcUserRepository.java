@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveUserDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * R2DBC-вариант {@link JdbcUserRepository} для профиля reactive. Друзья пользователя собираются
+ * в том же запросе через LISTAGG; граф дружбы в памяти обновляется только JDBC-стеком.
+ */
+@Slf4j
+@Profile("reactive")
+@Repository
+public class R2dbcUserRepository implements ReactiveUserDao {
+    private static final String SELECT_USERS = "SELECT u.*, " +
+            "(SELECT LISTAGG(CAST(fr.friend_id AS VARCHAR), ',') WITHIN GROUP (ORDER BY fr.friend_id) " +
+            "FROM friends fr WHERE fr.user_id = u.user_id) AS friend_ids " +
+            "FROM users u ";
+
+    private final DatabaseClient databaseClient;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public R2dbcUserRepository(DatabaseClient databaseClient, Scheduler scheduler) {
+        this.databaseClient = databaseClient;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<User> addUser(User user) {
+        log.debug("Добавление пользователя: email={}, login={}", user.getEmail(), user.getLogin());
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (:email, :login, :name, :birthday)";
+        return bindUser(databaseClient.sql(sql), user)
+                .filter(statement -> statement.returnGeneratedValues("user_id"))
+                .map(row -> row.get("user_id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    log.info("Пользователь добавлен: id={}, login={}", id, user.getLogin());
+                    return user;
+                })
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<User> updateUser(User user) {
+        String sql = "UPDATE users SET email = :email, login = :login, name = :name, birthday = :birthday " +
+                "WHERE user_id = :id";
+        return bindUser(databaseClient.sql(sql), user)
+                .bind("id", user.getId())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new NotFoundException("Пользователь с id=" + user.getId() + " не найден"))
+                        : Mono.just(user))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<User> getUser(long id) {
+        return databaseClient.sql(SELECT_USERS + "WHERE u.user_id = :id")
+                .bind("id", id)
+                .map(this::mapRowToUser)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<User> getAllUsers() {
+        return databaseClient.sql(SELECT_USERS + "ORDER BY u.user_id ASC")
+                .map(this::mapRowToUser)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Void> addFriend(long userId, long friendId) {
+        log.debug("Добавление в друзья: {} -> {}", userId, friendId);
+        String sql = "INSERT INTO friends (user_id, friend_id, confirmed) SELECT :userId, :friendId, false " +
+                "WHERE NOT EXISTS (SELECT 1 FROM friends WHERE user_id = :userId AND friend_id = :friendId)";
+        return databaseClient.sql(sql)
+                .bind("userId", userId)
+                .bind("friendId", friendId)
+                .then()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Void> removeFriend(long userId, long friendId) {
+        return databaseClient.sql("DELETE FROM friends WHERE user_id = :userId AND friend_id = :friendId")
+                .bind("userId", userId)
+                .bind("friendId", friendId)
+                .then()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<User> getFriends(long userId) {
+        log.debug("Получение друзей пользователя {}", userId);
+        return databaseClient.sql(SELECT_USERS + "JOIN friends f ON u.user_id = f.friend_id " +
+                        "WHERE f.user_id = :userId ORDER BY u.user_id ASC")
+                .bind("userId", userId)
+                .map(this::mapRowToUser)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Flux<User> getCommonFriends(long userId, long otherId) {
+        return databaseClient.sql(SELECT_USERS + "JOIN friends f1 ON u.user_id = f1.friend_id " +
+                        "JOIN friends f2 ON u.user_id = f2.friend_id " +
+                        "WHERE f1.user_id = :userId AND f2.user_id = :otherId ORDER BY u.user_id ASC")
+                .bind("userId", userId)
+                .bind("otherId", otherId)
+                .map(this::mapRowToUser)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<Boolean> userExists(long userId) {
+        return databaseClient.sql("SELECT 1 FROM users WHERE user_id = :id")
+                .bind("id", userId)
+                .fetch()
+                .first()
+                .hasElement()
+                .subscribeOn(scheduler);
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindUser(DatabaseClient.GenericExecuteSpec spec, User user) {
+        spec = spec.bind("email", user.getEmail())
+                .bind("login", user.getLogin())
+                .bind("birthday", user.getBirthday());
+        return user.getName() == null
+                ? spec.bindNull("name", String.class)
+                : spec.bind("name", user.getName());
+    }
+
+    private User mapRowToUser(Readable row) {
+        User user = new User();
+        user.setId(row.get("user_id", Long.class));
+        user.setEmail(row.get("email", String.class));
+        user.setLogin(row.get("login", String.class));
+        user.setName(row.get("name", String.class));
+        user.setBirthday(row.get("birthday", LocalDate.class));
+        user.getFriends().addAll(AggregatedIds.parse(row.get("friend_ids", String.class)));
+        return user;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Data
+public class BatchResult {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private double itemsPerSecond;
+    private List<BatchItemResult> items;
+
+    public static BatchResult of(List<BatchItemResult> items, long elapsedNanos) {
+        BatchResult result = new BatchResult();
+        result.setItems(items.stream().sorted(Comparator.comparingInt(BatchItemResult::getIndex)).toList());
+        result.setTotal(items.size());
+        result.setFailed((int) items.stream().filter(item -> item.getError() != null).count());
+        result.setSucceeded(result.getTotal() - result.getFailed());
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setItemsPerSecond(elapsedNanos == 0 ? 0 : result.getSucceeded() * 1_000_000_000.0 / elapsedNanos);
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -32,9 +33,8 @@ public class Film {
     private Set<Genre> genres = new HashSet<>();
     private final Set<Long> likes = new HashSet<>();
 
-    public int getLikesCount() {
-        return likes.size();
-    }
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likesCount;
 }
 
 
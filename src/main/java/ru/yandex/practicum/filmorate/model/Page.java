@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+@Data
+@AllArgsConstructor
+public class Page<T> {
+    private List<T> items;
+    private Long nextCursor;
+
+    /**
+     * Собирает страницу из выборки размером limit + 1: лишняя запись означает,
+     * что дальше есть ещё данные, и курсором становится id последнего элемента страницы.
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, ToLongFunction<T> idExtractor) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new Page<>(items, idExtractor.applyAsLong(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource, который оборачивает соединения, запросы и результаты в JDK-прокси
+ * и передаёт время выполнения и число строк в {@link StatementProfiler}.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final StatementProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, StatementProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+                case "createStatement" -> wrapStatement(Statement.class, (Statement) result, null);
+                default -> result;
+            };
+        });
+    }
+
+    private <T extends Statement> T wrapStatement(Class<T> type, Statement statement, String preparedSql) {
+        String[] lastSql = {preparedSql};
+        return proxy(type, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                lastSql[0] = sql;
+                long start = System.nanoTime();
+                Object result = invoke(statement, method, args);
+                profiler.recordExecution(sql, System.nanoTime() - start);
+                return switch (result) {
+                    case ResultSet resultSet -> wrapResultSet(resultSet, sql);
+                    case Integer count -> recordRows(sql, count, result);
+                    case Long count -> recordRows(sql, count, result);
+                    case int[] counts -> recordRows(sql, sumOf(counts), result);
+                    case long[] counts -> recordRows(sql, sumOf(counts), result);
+                    case null, default -> result;
+                };
+            }
+            Object result = invoke(statement, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, lastSql[0]);
+            }
+            return result;
+        });
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet, String sql) {
+        long[] rows = new long[1];
+        boolean[] closed = new boolean[1];
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && !closed[0]) {
+                closed[0] = true;
+                profiler.recordRows(sql, rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private Object recordRows(String sql, long rows, Object result) {
+        profiler.recordRows(sql, Math.max(rows, 0));
+        return result;
+    }
+
+    private static long sumOf(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            sum += Math.max(count, 0);
+        }
+        return sum;
+    }
+
+    private static long sumOf(long[] counts) {
+        long sum = 0;
+        for (long count : counts) {
+            sum += Math.max(count, 0);
+        }
+        return sum;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
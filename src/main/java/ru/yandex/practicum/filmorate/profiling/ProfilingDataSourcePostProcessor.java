@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает каждый DataSource контекста в {@link ProfilingDataSource}. Прокси стоит на каждом вызове
+ * Connection, Statement и ResultSet, поэтому по умолчанию выключено и включается профилями dev и test.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.profiling.enabled", havingValue = "true")
+public class ProfilingDataSourcePostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<StatementProfiler> profiler;
+
+    public ProfilingDataSourcePostProcessor(ObjectProvider<StatementProfiler> profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)) {
+            log.info("Профилирование SQL включено для DataSource '{}'", beanName);
+            return new ProfilingDataSource(dataSource, profiler.getObject());
+        }
+        return bean;
+    }
+}
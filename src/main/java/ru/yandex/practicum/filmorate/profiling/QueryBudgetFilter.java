@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Считает SQL-запросы, выполненные в потоке обработки HTTP-запроса,
+ * и пишет предупреждение, если их больше бюджета filmorate.jdbc.query-budget.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.profiling.enabled", havingValue = "true")
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    private final int budget;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public QueryBudgetFilter(
+            @Value("${filmorate.jdbc.query-budget:20}") int budget,
+            ObjectProvider<MeterRegistry> registry) {
+        this.budget = budget;
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            chain.doFilter(request, response);
+
+            long statements = scope.count();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("filmorate.jdbc.statements.per.request")
+                    .description("Число SQL-запросов на один HTTP-запрос")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statements);
+            if (statements > budget) {
+                log.warn("{} {} выполнил {} SQL-запросов при бюджете {}",
+                        request.getMethod(), request.getRequestURI(), statements, budget);
+            }
+        }
+    }
+}
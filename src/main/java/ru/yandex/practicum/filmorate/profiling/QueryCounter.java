@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+/**
+ * Счётчик SQL-запросов текущего потока. Считает, только пока открыта хотя бы одна область {@link #open()};
+ * области могут быть вложенными, каждая видит запросы, выполненные после её открытия.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        State state = STATE.get();
+        if (state == null) {
+            state = new State();
+            STATE.set(state);
+        }
+        state.openScopes++;
+        return new Scope(state, state.statements);
+    }
+
+    static void increment() {
+        State state = STATE.get();
+        if (state != null) {
+            state.statements++;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final State state;
+        private final long start;
+        private boolean closed;
+
+        private Scope(State state, long start) {
+            this.state = state;
+            this.start = start;
+        }
+
+        public long count() {
+            return state.statements - start;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (--state.openScopes == 0) {
+                STATE.remove();
+            }
+        }
+    }
+
+    private static final class State {
+        private long statements;
+        private int openScopes;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Метрики SQL по «форме» запроса: литералы заменены на ?, списки параметров свёрнуты, пробелы схлопнуты.
+ * Для каждой формы ведётся таймер выполнения с гистограммой и распределение числа строк.
+ * Форм больше {@link #MAX_CACHED_SHAPES} не заводится: остальные запросы учитываются под формой «other».
+ * Метрики кэшируются и по исходному тексту запроса, поэтому форма вычисляется один раз на каждый
+ * различный текст, а не при каждом выполнении.
+ */
+@Component
+public class StatementProfiler {
+    static final String STATEMENT_TIMER = "filmorate.jdbc.statement";
+    static final String ROWS_SUMMARY = "filmorate.jdbc.rows";
+    static final int MAX_CACHED_SHAPES = 1000;
+    static final String OTHER_SHAPE = "other";
+    static final int MAX_CACHED_STATEMENTS = 10_000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry registry;
+    private final Map<String, Meters> metersByShape = new ConcurrentHashMap<>();
+    private final Map<String, Meters> metersBySql = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StatementProfiler(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    public void recordExecution(String sql, long elapsedNanos) {
+        QueryCounter.increment();
+        meters(sql).timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRows(String sql, long rows) {
+        meters(sql).rows.record(rows);
+    }
+
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "unknown";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?, ...");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    int shapeCount() {
+        return metersByShape.size();
+    }
+
+    int cachedStatementCount() {
+        return metersBySql.size();
+    }
+
+    private Meters meters(String sql) {
+        if (sql == null) {
+            return metersOfShape(shapeOf(null));
+        }
+        Meters meters = metersBySql.get(sql);
+        if (meters != null) {
+            return meters;
+        }
+        meters = metersOfShape(shapeOf(sql));
+        if (metersBySql.size() < MAX_CACHED_STATEMENTS) {
+            metersBySql.putIfAbsent(sql, meters);
+        }
+        return meters;
+    }
+
+    private Meters metersOfShape(String shape) {
+        Meters meters = metersByShape.get(shape);
+        if (meters != null) {
+            return meters;
+        }
+        if (metersByShape.size() >= MAX_CACHED_SHAPES) {
+            shape = OTHER_SHAPE;
+        }
+        return metersByShape.computeIfAbsent(shape, this::register);
+    }
+
+    private Meters register(String shape) {
+        return new Meters(
+                Timer.builder(STATEMENT_TIMER)
+                        .description("Время выполнения SQL-запроса")
+                        .tag("sql", shape)
+                        .publishPercentileHistogram()
+                        .register(registry),
+                DistributionSummary.builder(ROWS_SUMMARY)
+                        .description("Строк прочитано или изменено SQL-запросом")
+                        .tag("sql", shape)
+                        .register(registry));
+    }
+
+    private record Meters(Timer timer, DistributionSummary rows) {
+    }
+}
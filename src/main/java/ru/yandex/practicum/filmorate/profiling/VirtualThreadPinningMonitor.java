@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Следит через JFR-событие jdk.VirtualThreadPinned за виртуальными потоками, которые блокируются
+ * внутри synchronized (в H2, драйвере или нашем коде) и поэтому держат поток-носитель.
+ * Каждое такое место считается отдельно по первому кадру стека вне JDK и один раз пишется в лог со стеком.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+    static final String PINNED_TIMER = "filmorate.virtual.pinned";
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final Map<String, Timer> timersBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${filmorate.virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this(registry.getIfAvailable(SimpleMeterRegistry::new), Duration.ofMillis(thresholdMs));
+    }
+
+    VirtualThreadPinningMonitor(MeterRegistry registry, Duration threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Слежение за закреплением виртуальных потоков включено, порог {} мс", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long getPinnedCount() {
+        return timersBySite.values().stream().mapToLong(Timer::count).sum();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .filter(method -> JDK_PACKAGES.stream().noneMatch(method::startsWith))
+                .findFirst()
+                .orElse("unknown");
+
+        boolean firstTime = !timersBySite.containsKey(site);
+        timersBySite.computeIfAbsent(site, key -> Timer.builder(PINNED_TIMER)
+                        .description("Время, на которое виртуальный поток закрепил поток-носитель")
+                        .tag("site", key)
+                        .register(registry))
+                .record(event.getDuration());
+        if (firstTime) {
+            log.warn("Виртуальный поток закреплён на {} мс в {}:\n\t{}", event.getDuration().toMillis(), site,
+                    frames.stream()
+                            .limit(LOGGED_FRAMES)
+                            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                    + ":" + frame.getLineNumber())
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+}
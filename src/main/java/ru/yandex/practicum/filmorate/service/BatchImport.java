@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Общий контракт пакетного импорта для фильмов, пользователей и дружбы. Вход делится на части
+ * по chunkSize элементов, корректные элементы части записываются в БД одним вызовом,
+ * а ошибка БД отмечает как неудавшиеся только элементы этой части — ответ всегда 200 с итогом по каждому элементу.
+ */
+@Slf4j
+final class BatchImport {
+    static final String WRITE_FAILED = "Ошибка записи в БД";
+
+    private BatchImport() {
+    }
+
+    /**
+     * @param validation по части входа возвращает проверку элемента: текст ошибки или null
+     * @param write      записывает корректные элементы части и возвращает их id в том же порядке
+     */
+    static <T> BatchResult run(List<T> items, int chunkSize, String description,
+                               Function<List<T>, Function<T, String>> validation,
+                               Function<List<T>, List<Long>> write) {
+        long start = System.nanoTime();
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, items.size());
+            Function<T, String> validator = validation.apply(items.subList(from, to));
+            List<T> validItems = new ArrayList<>();
+            List<Integer> validIndexes = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                String error = validator.apply(items.get(i));
+                if (error != null) {
+                    results.add(BatchItemResult.failed(i, error));
+                } else {
+                    validItems.add(items.get(i));
+                    validIndexes.add(i);
+                }
+            }
+            if (validItems.isEmpty()) {
+                continue;
+            }
+
+            try {
+                List<Long> ids = write.apply(validItems);
+                for (int i = 0; i < validItems.size(); i++) {
+                    results.add(BatchItemResult.created(validIndexes.get(i), ids.get(i)));
+                }
+            } catch (DataAccessException e) {
+                log.error("Ошибка при пакетном добавлении {} {}..{}", description, from, to - 1, e);
+                validIndexes.forEach(i -> results.add(BatchItemResult.failed(i, WRITE_FAILED)));
+            }
+        }
+        return BatchResult.of(results, System.nanoTime() - start);
+    }
+}
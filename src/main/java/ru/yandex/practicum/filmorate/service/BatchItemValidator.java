@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Проверка одного элемента пакетного импорта. Нарушения Bean Validation и исключения проверок сервиса
+ * превращаются в текст ошибки элемента, чтобы один неверный элемент не отклонял весь пакет.
+ */
+@Component
+public class BatchItemValidator {
+    private final Validator validator;
+
+    @Autowired
+    public BatchItemValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * @param missingMessage ошибка для null вместо элемента
+     * @param check          проверки сервиса, сообщающие об ошибке через NotFoundException или ValidationException
+     * @return текст ошибки или null, если элемент корректен
+     */
+    public <T> String validate(T item, String missingMessage, Consumer<T> check) {
+        if (item == null) {
+            return missingMessage;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            check.accept(item);
+            return null;
+        } catch (NotFoundException | ValidationException e) {
+            return e.getMessage();
+        }
+    }
+}
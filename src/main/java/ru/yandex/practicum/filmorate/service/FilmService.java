@@ -1,61 +1,82 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.data.dao.FilmDao;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Page;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Timed("filmorate.service")
 @Service
 public class FilmService {
     private final FilmDao filmDao;
     private final UserService userService;
     private final GenreService genreService;
     private final MpaService mpaService;
+    private final LikeWriteBehindQueue likeQueue;
+    private final EntityVersions versions;
+    private final BatchItemValidator batchItemValidator;
+    private final int importChunkSize;
 
     @Autowired
     public FilmService(
             @Qualifier("FilmDao") FilmDao filmDao,
             UserService userService,
             GenreService genreService,
-            MpaService mpaService) {
+            MpaService mpaService,
+            LikeWriteBehindQueue likeQueue,
+            EntityVersions versions,
+            BatchItemValidator batchItemValidator,
+            @Value("${filmorate.import.chunk-size:1000}") int importChunkSize) {
         this.filmDao = filmDao;
         this.userService = userService;
         this.genreService = genreService;
         this.mpaService = mpaService;
+        this.likeQueue = likeQueue;
+        this.versions = versions;
+        this.batchItemValidator = batchItemValidator;
+        this.importChunkSize = Math.max(importChunkSize, 1);
     }
 
     public Film addFilm(Film film) {
         validateFilm(film);
-        try {
-            mpaService.getMpaById(film.getMpa().getId());
-        } catch (NotFoundException e) {
-            throw new NotFoundException("MPA рейтинг с id=" + film.getMpa().getId() + " не найден");
-        }
-
-        if (film.getGenres() != null) {
-            for (Genre genre : film.getGenres()) {
-                try {
-                    genreService.getGenreById((int) genre.getId());
-                } catch (NotFoundException e) {
-                    throw new NotFoundException("Жанр с id=" + genre.getId() + " не найден");
-                }
-            }
-        }
+        Film added = filmDao.addFilm(film);
+        versions.filmChanged(added.getId());
+        return added;
+    }
 
-        return filmDao.addFilm(film);
+    public BatchResult addFilms(List<Film> films) {
+        return BatchImport.run(films, importChunkSize, "фильмов",
+                chunk -> film -> batchItemValidator.validate(film, "Фильм не передан", this::validateFilm),
+                validFilms -> {
+                    filmDao.addFilms(validFilms);
+                    List<Long> ids = validFilms.stream().map(Film::getId).toList();
+                    versions.filmsChanged(ids);
+                    return ids;
+                });
     }
 
     public Film updateFilm(Film film) {
         validateFilm(film);
-        return filmDao.updateFilm(film);
+        Film updated = filmDao.updateFilm(film);
+        versions.filmChanged(updated.getId());
+        return updated;
     }
 
     public Film getFilm(long id) {
@@ -67,25 +88,63 @@ public class FilmService {
 
     public List<Film> getAllFilms() {
         List<Film> films = filmDao.getAllFilms();
-        films.forEach(film -> {
-            Set<Genre> genres = genreService.getGenresByFilmId(film.getId());
-            film.setGenres(genres);
-        });
+        Map<Long, Set<Genre>> genresByFilmId = genreService.getGenresOfAllFilms();
+        films.forEach(film -> film.setGenres(genresByFilmId.getOrDefault(film.getId(), new HashSet<>())));
         return films;
     }
 
+    public Page<Film> getFilmsPage(long afterId, int limit) {
+        RequestLimits.requirePageSize(limit);
+        List<Film> films = loadGenres(filmDao.getFilmsPage(afterId, limit + 1));
+        return Page.of(films, limit, Film::getId);
+    }
+
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmDao.streamAllFilms(consumer);
+    }
+
     public void addLike(long filmId, long userId) {
-        userService.getUser(userId);
+        if (likeQueue.isEnabled()) {
+            validateLikeTargets(filmId, userId);
+            likeQueue.like(filmId, userId);
+            return;
+        }
         filmDao.addLike(filmId, userId);
+        versions.filmChanged(filmId);
     }
 
     public void removeLike(long filmId, long userId) {
-        userService.getUser(userId);
-        filmDao.removeLike(filmId, userId);
+        if (likeQueue.isEnabled()) {
+            validateLikeTargets(filmId, userId);
+            likeQueue.unlike(filmId, userId);
+            return;
+        }
+        if (filmDao.removeLike(filmId, userId)) {
+            versions.filmChanged(filmId);
+        } else {
+            // лайка не было: проверяем фильм и пользователя, только чтобы отличить 404 от повторного удаления
+            validateLikeTargets(filmId, userId);
+        }
     }
 
     public List<Film> getPopularFilms(int count) {
-        return filmDao.getPopularFilms(count);
+        return loadGenres(filmDao.getPopularFilms(count));
+    }
+
+    public List<Film> getRecommendedFilms(long userId, int count) {
+        RequestLimits.requireLimit(count, "Количество рекомендаций должно");
+        if (!userService.userExists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        return loadGenres(filmDao.getRecommendedFilms(userId, count));
+    }
+
+    public List<Film> searchFilms(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не должен быть пустым");
+        }
+        RequestLimits.requireLimit(limit, "Количество результатов поиска должно");
+        return loadGenres(filmDao.searchFilms(query, limit));
     }
 
     public Genre getGenreById(int genreId) {
@@ -96,6 +155,22 @@ public class FilmService {
         return genreService.getAllGenres();
     }
 
+    private void validateLikeTargets(long filmId, long userId) {
+        if (!filmDao.filmExists(filmId)) {
+            throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+        }
+        if (!userService.userExists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    private List<Film> loadGenres(List<Film> films) {
+        Map<Long, Set<Genre>> genresByFilmId = genreService.getGenresByFilmIds(
+                films.stream().map(Film::getId).toList());
+        films.forEach(film -> film.setGenres(genresByFilmId.getOrDefault(film.getId(), new HashSet<>())));
+        return films;
+    }
+
     private void validateFilm(Film film) {
         if (film.getMpa() == null || film.getMpa().getId() == 0) {
             throw new NotFoundException("MPA рейтинг не указан");
@@ -1,38 +1,81 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.data.dao.GenreDao;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
+@Timed("filmorate.service")
 @Service
 public class GenreService {
     private final GenreDao genreDao;
+    private final ReferenceDataCache referenceData;
 
     @Autowired
-    public GenreService(@Qualifier("GenreDao") GenreDao genreDao) {
+    public GenreService(@Qualifier("GenreDao") GenreDao genreDao, ReferenceDataCache referenceData) {
         this.genreDao = genreDao;
+        this.referenceData = referenceData;
+    }
+
+    public long getVersion() {
+        return referenceData.getVersion();
     }
 
     public List<Genre> getAllGenres() {
-        return genreDao.getAllGenres();
+        return referenceData.getAllGenres();
     }
 
     public Genre getGenreById(int genreId) {
-        return genreDao.getGenreById(genreId)
-                .orElseThrow(() -> new NotFoundException("Жанр с id=" + genreId + " не найден"));
+        Genre genre = referenceData.getGenre(genreId);
+        if (genre == null) {
+            throw new NotFoundException("Жанр с id=" + genreId + " не найден");
+        }
+        return genre;
     }
 
     public Set<Genre> getGenresByFilmId(long filmId) {
-        return genreDao.getGenresByFilmId(filmId);
+        return canonical(genreDao.getGenresByFilmId(filmId));
+    }
+
+    public Map<Long, Set<Genre>> getGenresByFilmIds(Collection<Long> filmIds) {
+        Map<Long, Set<Genre>> genresByFilmId = genreDao.getGenresByFilmIds(filmIds);
+        genresByFilmId.replaceAll((filmId, genres) -> canonical(genres));
+        return genresByFilmId;
+    }
+
+    public Map<Long, Set<Genre>> getGenresOfAllFilms() {
+        Map<Long, Set<Genre>> genresByFilmId = genreDao.getGenresOfAllFilms();
+        genresByFilmId.replaceAll((filmId, genres) -> canonical(genres));
+        return genresByFilmId;
     }
 
     public List<Genre> getByIds(List<Long> ids) {
-        return genreDao.getByIds(ids);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream()
+                .map(referenceData::getGenre)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Set<Genre> canonical(Set<Genre> genres) {
+        Set<Genre> result = new LinkedHashSet<>();
+        genres.forEach(genre -> {
+            Genre cached = referenceData.getGenre(genre.getId());
+            result.add(cached != null ? cached : genre);
+        });
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,334 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись лайков. Команды копятся в ограниченной очереди, по каждой паре (фильм, пользователь)
+ * остаётся только последняя команда, и очередь сбрасывается в БД по размеру или по таймеру
+ * пакетами не больше batchSize команд, каждый пакет — отдельная транзакция.
+ * Если очередь заполнена, вызывающий поток сам записывает один пакет и ждёт его окончания.
+ * Пакет, запись которого не удалась, возвращается в очередь, а сброс по таймеру откладывается
+ * с растущей паузой; команда, не записанная за maxAttempts попыток, отбрасывается с записью в лог.
+ */
+@Slf4j
+@Component
+public class LikeWriteBehindQueue {
+    static final String FLUSH_TIMER = "filmorate.likes.queue.flush";
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final FilmDao filmDao;
+    private final EntityVersions versions;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int capacity;
+    private final int maxAttempts;
+    private final long flushIntervalNanos;
+
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private Map<Like, Boolean> pending = new LinkedHashMap<>();
+    private final Map<Like, Integer> failedAttempts = new HashMap<>();
+    private int consecutiveFailures;
+    private volatile long retryNotBefore;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong enqueuedCommands = new AtomicLong();
+    private final AtomicLong coalescedCommands = new AtomicLong();
+    private final AtomicLong flushedCommands = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong deadLetteredCommands = new AtomicLong();
+    private final Timer flushTimer;
+
+    @Autowired
+    public LikeWriteBehindQueue(
+            @Qualifier("FilmDao") FilmDao filmDao,
+            EntityVersions versions,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+            @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+            @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+            @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${filmorate.likes.write-behind.max-attempts:5}") int maxAttempts,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(filmDao, versions, registry.getIfAvailable(SimpleMeterRegistry::new), enabled, batchSize, capacity,
+                flushIntervalMs, maxAttempts, virtualThreads);
+    }
+
+    LikeWriteBehindQueue(FilmDao filmDao, EntityVersions versions, MeterRegistry registry, boolean enabled,
+                         int batchSize, int capacity, long flushIntervalMs, int maxAttempts, boolean virtualThreads) {
+        this.filmDao = filmDao;
+        this.versions = versions;
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.capacity = Math.max(capacity, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(flushIntervalMs, 1));
+        this.flushTimer = Timer.builder(FLUSH_TIMER)
+                .description("Запись пакета лайков в БД")
+                .register(registry);
+
+        if (enabled) {
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name("likes-write-behind").factory()
+                    : Thread.ofPlatform().name("likes-write-behind").daemon().factory();
+            scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                    TimeUnit.MILLISECONDS);
+            log.info("Отложенная запись лайков включена: batchSize={}, capacity={}, flushIntervalMs={}, maxAttempts={}",
+                    this.batchSize, this.capacity, flushIntervalMs, this.maxAttempts);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void like(long filmId, long userId) {
+        enqueue(new Like(filmId, userId), true);
+    }
+
+    public void unlike(long filmId, long userId) {
+        enqueue(new Like(filmId, userId), false);
+    }
+
+    /**
+     * Записывает все накопленные команды пакетами по batchSize. Команды, пришедшие во время сброса,
+     * остаются до следующего сброса. При ошибке сброс прерывается, а исключение пробрасывается.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            int batches = (getQueueDepth() + batchSize - 1) / batchSize;
+            for (int i = 0; i < batches; i++) {
+                if (!flushBatch()) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка при сбросе очереди лайков при остановке", e);
+        }
+        int lost = getQueueDepth();
+        if (lost > 0) {
+            log.error("Отложенная запись лайков остановлена, не записано {} команд", lost);
+        } else {
+            log.info("Отложенная запись лайков остановлена, очередь сброшена");
+        }
+    }
+
+    public int getQueueDepth() {
+        pendingLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    public long getEnqueuedCommands() {
+        return enqueuedCommands.get();
+    }
+
+    public long getCoalescedCommands() {
+        return coalescedCommands.get();
+    }
+
+    public long getFlushedCommands() {
+        return flushedCommands.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    public long getDeadLetteredCommands() {
+        return deadLetteredCommands.get();
+    }
+
+    private void enqueue(Like like, boolean isLike) {
+        enqueuedCommands.incrementAndGet();
+        while (true) {
+            int size;
+            pendingLock.lock();
+            try {
+                if (pending.size() < capacity || pending.containsKey(like)) {
+                    if (pending.put(like, isLike) != null) {
+                        coalescedCommands.incrementAndGet();
+                    }
+                    failedAttempts.remove(like);
+                    size = pending.size();
+                } else {
+                    size = -1;
+                }
+            } finally {
+                pendingLock.unlock();
+            }
+
+            if (size < 0) {
+                flushLock.lock();
+                try {
+                    flushBatch();
+                } finally {
+                    flushLock.unlock();
+                }
+                continue;
+            }
+            if (size >= batchSize && scheduler != null && flushRequested.compareAndSet(false, true)) {
+                scheduler.execute(this::flushQuietly);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Записывает один пакет из самых старых команд. Вызывается под flushLock.
+     *
+     * @return false, если очередь была пуста
+     */
+    private boolean flushBatch() {
+        Map<Like, Boolean> batch = drain();
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        List<Like> added = new ArrayList<>();
+        List<Like> removed = new ArrayList<>();
+        batch.forEach((like, isLike) -> (isLike ? added : removed).add(like));
+
+        long start = System.nanoTime();
+        try {
+            filmDao.applyLikes(added, removed);
+        } catch (RuntimeException e) {
+            failedFlushCount.incrementAndGet();
+            retryLater(batch);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        consecutiveFailures = 0;
+        retryNotBefore = 0;
+        versions.filmsChanged(batch.keySet().stream().map(Like::getFilmId).distinct().toList());
+
+        flushCount.incrementAndGet();
+        flushedCommands.addAndGet(batch.size());
+        flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Сброшено {} команд лайков за {} мс", batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return true;
+    }
+
+    private Map<Like, Boolean> drain() {
+        pendingLock.lock();
+        try {
+            Map<Like, Boolean> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<Like, Boolean>> iterator = pending.entrySet().iterator();
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                Map.Entry<Like, Boolean> command = iterator.next();
+                batch.put(command.getKey(), command.getValue());
+                iterator.remove();
+            }
+            return batch;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает неудавшийся пакет в начало очереди, кроме команд, которые уже заменены более новыми
+     * и которые исчерпали попытки. Вызывается под flushLock.
+     */
+    private void retryLater(Map<Like, Boolean> batch) {
+        Map<Like, Boolean> deadLetters = new LinkedHashMap<>();
+        pendingLock.lock();
+        try {
+            Map<Like, Boolean> retried = new LinkedHashMap<>();
+            batch.forEach((like, isLike) -> {
+                if (pending.containsKey(like)) {
+                    return;
+                }
+                int attempts = failedAttempts.merge(like, 1, Integer::sum);
+                if (attempts >= maxAttempts) {
+                    failedAttempts.remove(like);
+                    deadLetters.put(like, isLike);
+                } else {
+                    retried.put(like, isLike);
+                }
+            });
+            retried.putAll(pending);
+            pending = retried;
+        } finally {
+            pendingLock.unlock();
+        }
+
+        consecutiveFailures++;
+        long backoff = Math.min(flushIntervalNanos << Math.min(consecutiveFailures, 20), MAX_RETRY_BACKOFF_NANOS);
+        retryNotBefore = System.nanoTime() + backoff;
+        if (!deadLetters.isEmpty()) {
+            deadLetteredCommands.addAndGet(deadLetters.size());
+            log.error("Отброшено {} команд лайков после {} неудачных попыток записи: {}",
+                    deadLetters.size(), maxAttempts, deadLetters);
+        }
+    }
+
+    private void flushQuietly() {
+        if (retryNotBefore != 0 && System.nanoTime() - retryNotBefore < 0) {
+            flushRequested.set(false);
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка при сбросе очереди лайков", e);
+        }
+    }
+}
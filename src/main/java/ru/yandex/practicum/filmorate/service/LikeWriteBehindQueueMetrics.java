@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Публикует счётчики очереди отложенной записи лайков в Micrometer.
+ * Время записи пакетов очередь сама пишет в таймер {@value LikeWriteBehindQueue#FLUSH_TIMER}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LikeWriteBehindQueueMetrics implements MeterBinder {
+    private final LikeWriteBehindQueue queue;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.likes.queue.depth", queue, LikeWriteBehindQueue::getQueueDepth)
+                .description("Команды лайков, ожидающие записи в БД")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.enqueued", queue, LikeWriteBehindQueue::getEnqueuedCommands)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.coalesced", queue, LikeWriteBehindQueue::getCoalescedCommands)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.flushed", queue, LikeWriteBehindQueue::getFlushedCommands)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.flushes", queue, LikeWriteBehindQueue::getFlushCount)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.failed.flushes", queue,
+                        LikeWriteBehindQueue::getFailedFlushCount)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.dead.lettered", queue,
+                        LikeWriteBehindQueue::getDeadLetteredCommands)
+                .description("Команды лайков, отброшенные после исчерпания попыток записи")
+                .register(registry);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.model.LikesCountDrift;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class LikesCountConsistencyChecker {
+    private final FilmDao filmDao;
+    private final EntityVersions versions;
+    private final boolean repairOnStartup;
+
+    @Autowired
+    public LikesCountConsistencyChecker(
+            @Qualifier("FilmDao") FilmDao filmDao,
+            EntityVersions versions,
+            @Value("${filmorate.likes-count.repair-on-startup:false}") boolean repairOnStartup) {
+        this.filmDao = filmDao;
+        this.versions = versions;
+        this.repairOnStartup = repairOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        check(repairOnStartup);
+    }
+
+    public List<LikesCountDrift> check(boolean repair) {
+        List<LikesCountDrift> drift = filmDao.findLikesCountDrift();
+        if (drift.isEmpty()) {
+            log.info("Счётчики likes_count согласованы с таблицей likes");
+            return drift;
+        }
+        drift.forEach(d -> log.warn("Расхождение likes_count: filmId={}, сохранено={}, фактически={}",
+                d.getFilmId(), d.getStoredCount(), d.getActualCount()));
+        if (repair) {
+            filmDao.repairLikesCount();
+            versions.invalidateAll();
+        }
+        return drift;
+    }
+}
@@ -1,27 +1,37 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.data.dao.MpaDao;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.util.List;
 
+@Timed("filmorate.service")
 @Service
 public class MpaService {
-    private final MpaDao mpaDao;
+    private final ReferenceDataCache referenceData;
 
     @Autowired
-    public MpaService(@Qualifier("MpaDao") MpaDao mpaDao) {
-        this.mpaDao = mpaDao;
+    public MpaService(ReferenceDataCache referenceData) {
+        this.referenceData = referenceData;
+    }
+
+    public long getVersion() {
+        return referenceData.getVersion();
     }
 
     public List<MpaRating> getAllMpaRatings() {
-        return mpaDao.getAllMpaRatings();
+        return referenceData.getAllMpaRatings();
     }
 
     public MpaRating getMpaById(int id) {
-        return mpaDao.getMpaById(id);
+        MpaRating mpa = referenceData.getMpa(id);
+        if (mpa == null) {
+            throw new NotFoundException("Рейтинг MPA с id=" + id + " не найден");
+        }
+        return mpa;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveFilmDao;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveGenreDao;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveMpaDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Profile("reactive")
+@Service
+public class ReactiveFilmService {
+    private final ReactiveFilmDao filmDao;
+    private final ReactiveMpaDao mpaDao;
+    private final ReactiveGenreDao genreDao;
+    private final ReactiveUserService userService;
+
+    @Autowired
+    public ReactiveFilmService(
+            ReactiveFilmDao filmDao,
+            ReactiveMpaDao mpaDao,
+            ReactiveGenreDao genreDao,
+            ReactiveUserService userService) {
+        this.filmDao = filmDao;
+        this.mpaDao = mpaDao;
+        this.genreDao = genreDao;
+        this.userService = userService;
+    }
+
+    public Mono<Film> addFilm(Film film) {
+        return validateFilm(film).then(Mono.defer(() -> filmDao.addFilm(film)));
+    }
+
+    public Mono<Film> updateFilm(Film film) {
+        return validateFilm(film).then(Mono.defer(() -> filmDao.updateFilm(film)));
+    }
+
+    public Mono<Film> getFilm(long id) {
+        return filmDao.getFilm(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Фильм с id=" + id + " не найден")));
+    }
+
+    public Flux<Film> getAllFilms() {
+        return filmDao.getAllFilms();
+    }
+
+    public Mono<Void> addLike(long filmId, long userId) {
+        return requireFilm(filmId)
+                .then(userService.requireUser(userId))
+                .then(filmDao.addLike(filmId, userId));
+    }
+
+    public Mono<Void> removeLike(long filmId, long userId) {
+        return requireFilm(filmId)
+                .then(userService.requireUser(userId))
+                .then(filmDao.removeLike(filmId, userId));
+    }
+
+    public Flux<Film> getPopularFilms(int count) {
+        return filmDao.getPopularFilms(count);
+    }
+
+    public Flux<Genre> getAllGenres() {
+        return genreDao.getAllGenres();
+    }
+
+    public Mono<Genre> getGenreById(int genreId) {
+        return genreDao.getGenreById(genreId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Жанр с id=" + genreId + " не найден")));
+    }
+
+    public Flux<MpaRating> getAllMpaRatings() {
+        return mpaDao.getAllMpaRatings();
+    }
+
+    public Mono<MpaRating> getMpaById(int id) {
+        return mpaDao.getMpaById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Рейтинг MPA с id=" + id + " не найден")));
+    }
+
+    private Mono<Void> requireFilm(long filmId) {
+        return filmDao.filmExists(filmId)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : Mono.error(new NotFoundException("Фильм с id=" + filmId + " не найден")));
+    }
+
+    private Mono<Void> validateFilm(Film film) {
+        if (film.getMpa() == null || film.getMpa().getId() == 0) {
+            return Mono.error(new NotFoundException("MPA рейтинг не указан"));
+        }
+        int mpaId = film.getMpa().getId();
+        Mono<MpaRating> mpa = mpaDao.getMpaById(mpaId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("MPA рейтинг с id=" + mpaId + " не найден")));
+
+        if (film.getGenres() == null || film.getGenres().isEmpty()) {
+            return mpa.then();
+        }
+        Set<Long> genreIds = film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        Mono<List<Genre>> genres = genreDao.getByIds(genreIds).collectList();
+        return mpa.then(genres).flatMap(existingGenres -> {
+            if (existingGenres.size() == genreIds.size()) {
+                return Mono.<Void>empty();
+            }
+            Set<Long> missingIds = new HashSet<>(genreIds);
+            existingGenres.forEach(genre -> missingIds.remove(genre.getId()));
+            return Mono.error(new NotFoundException("Жанры с id=" + missingIds + " не найдены"));
+        });
+    }
+}
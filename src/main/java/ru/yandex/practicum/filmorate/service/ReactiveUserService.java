@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.data.dao.ReactiveUserDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+
+@Profile("reactive")
+@Service
+public class ReactiveUserService {
+    private final ReactiveUserDao userDao;
+
+    @Autowired
+    public ReactiveUserService(ReactiveUserDao userDao) {
+        this.userDao = userDao;
+    }
+
+    public Mono<User> addUser(User user) {
+        validateUser(user);
+        return userDao.addUser(user);
+    }
+
+    public Mono<User> updateUser(User user) {
+        validateUser(user);
+        return userDao.updateUser(user);
+    }
+
+    public Mono<User> getUser(long id) {
+        return userDao.getUser(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Пользователь с id=" + id + " не найден")));
+    }
+
+    public Flux<User> getAllUsers() {
+        return userDao.getAllUsers();
+    }
+
+    public Mono<Void> addFriend(long userId, long friendId) {
+        if (userId == friendId) {
+            return Mono.error(new ValidationException("Пользователь не может добавить себя в друзья"));
+        }
+        return requireUser(userId)
+                .then(requireUser(friendId))
+                .then(userDao.addFriend(userId, friendId));
+    }
+
+    public Mono<Void> removeFriend(long userId, long friendId) {
+        return requireUser(userId)
+                .then(requireUser(friendId))
+                .then(userDao.removeFriend(userId, friendId));
+    }
+
+    public Flux<User> getFriends(long userId) {
+        return requireUser(userId).thenMany(userDao.getFriends(userId));
+    }
+
+    public Flux<User> getCommonFriends(long userId, long otherId) {
+        return userDao.getCommonFriends(userId, otherId);
+    }
+
+    Mono<Void> requireUser(long userId) {
+        return userDao.userExists(userId)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : Mono.error(new NotFoundException("Пользователь с id=" + userId + " не найден")));
+    }
+
+    private void validateUser(User user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+    }
+}
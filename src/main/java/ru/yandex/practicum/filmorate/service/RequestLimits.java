@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Общие проверки размера страницы и лимитов выдачи для сервисов фильмов и пользователей.
+ */
+final class RequestLimits {
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private RequestLimits() {
+    }
+
+    static void requirePageSize(int limit) {
+        requireLimit(limit, "Размер страницы должен");
+    }
+
+    /**
+     * Проверяет лимит от 1 до {@link #MAX_PAGE_SIZE}; subject — начало сообщения об ошибке,
+     * например «Количество рекомендаций должно».
+     */
+    static void requireLimit(int limit, String subject) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(subject + " быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -1,38 +1,108 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.data.dao.UserDao;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Page;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+@Timed("filmorate.service")
 @Service
 public class UserService {
     private final UserDao userDao;
+    private final EntityVersions versions;
+    private final BatchItemValidator batchItemValidator;
+    private final int importChunkSize;
 
-    public UserService(@Qualifier("UserDao") UserDao userDao) {
+    @Autowired
+    public UserService(
+            @Qualifier("UserDao") UserDao userDao,
+            EntityVersions versions,
+            BatchItemValidator batchItemValidator,
+            @Value("${filmorate.import.chunk-size:1000}") int importChunkSize) {
         this.userDao = userDao;
+        this.versions = versions;
+        this.batchItemValidator = batchItemValidator;
+        this.importChunkSize = Math.max(importChunkSize, 1);
     }
 
     public User addUser(User user) {
         validateUser(user);
-        return userDao.addUser(user);
+        User added = userDao.addUser(user);
+        versions.userChanged(added.getId());
+        return added;
+    }
+
+    public BatchResult addUsers(List<User> users) {
+        return BatchImport.run(users, importChunkSize, "пользователей",
+                chunk -> user -> batchItemValidator.validate(user, "Пользователь не передан",
+                        this::validateImportedUser),
+                validUsers -> {
+                    userDao.addUsers(validUsers);
+                    List<Long> ids = validUsers.stream().map(User::getId).toList();
+                    versions.usersChanged(ids);
+                    return ids;
+                });
+    }
+
+    public BatchResult addFriendships(List<Friendship> friendships) {
+        return BatchImport.run(friendships, importChunkSize, "друзей",
+                chunk -> {
+                    Set<Long> existing = userDao.findExistingUserIds(referencedUserIds(chunk));
+                    return friendship -> validateFriendship(friendship, existing);
+                },
+                validFriendships -> {
+                    userDao.addFriendships(validFriendships);
+                    versions.usersChanged(validFriendships.stream().map(Friendship::getUserId).toList());
+                    return Collections.nCopies(validFriendships.size(), null);
+                });
     }
 
     public User updateUser(User user) {
         validateUser(user);
-        return userDao.updateUser(user);
+        User updated = userDao.updateUser(user);
+        versions.userChanged(updated.getId());
+        return updated;
     }
 
     public User getUser(long id) {
-        return userDao.getUser(id);
+        User user = userDao.getUser(id);
+        if (user == null) {
+            throw new NotFoundException("Пользователь с id=" + id + " не найден");
+        }
+        return user;
+    }
+
+    public boolean userExists(long userId) {
+        return userDao.userExists(userId);
+    }
+
+    public List<User> getAllUsers(boolean withFriends) {
+        return userDao.getAllUsers(withFriends);
     }
 
-    public List<User> getAllUsers() {
-        return userDao.getAllUsers();
+    public Page<User> getUsersPage(long afterId, int limit) {
+        RequestLimits.requirePageSize(limit);
+        return Page.of(userDao.getUsersPage(afterId, limit + 1), limit, User::getId);
+    }
+
+    public void streamAllUsers(Consumer<User> consumer) {
+        userDao.streamAllUsers(consumer);
     }
 
     public void addFriend(long userId, long friendId) {
@@ -40,33 +110,88 @@ public class UserService {
             throw new ValidationException("Пользователь не может добавить себя в друзья");
         }
         userDao.addFriend(userId, friendId);
+        versions.userChanged(userId);
     }
 
     public void confirmFriend(long userId, long friendId) {
         userDao.confirmFriend(userId, friendId);
+        versions.userChanged(userId);
+        versions.userChanged(friendId);
     }
 
     public void removeFriend(long userId, long friendId) {
-        getUser(userId);
-        getUser(friendId);
+        if (userDao.removeFriend(userId, friendId)) {
+            versions.userChanged(userId);
+            return;
+        }
+        // дружбы не было: проверяем пользователей, только чтобы отличить 404 от повторного удаления
         if (!userDao.userExists(userId)) {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
         if (!userDao.userExists(friendId)) {
             throw new NotFoundException("Пользователь с id=" + friendId + " не найден");
         }
-        userDao.removeFriend(userId, friendId);
     }
 
-    public List<User> getFriends(long userId) {
+    public List<User> getFriends(long userId, boolean withFriends) {
         if (!userDao.userExists(userId)) {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
-        return userDao.getFriends(userId);
+        return userDao.getFriends(userId, withFriends);
     }
 
-    public List<User> getCommonFriends(long userId, long otherId) {
-        return userDao.getCommonFriends(userId, otherId);
+    public Page<User> getFriendsPage(long userId, long afterId, int limit) {
+        RequestLimits.requirePageSize(limit);
+        if (!userDao.userExists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        return Page.of(userDao.getFriendsPage(userId, afterId, limit + 1), limit, User::getId);
+    }
+
+    public List<User> getCommonFriends(long userId, long otherId, boolean withFriends) {
+        return userDao.getCommonFriends(userId, otherId, withFriends);
+    }
+
+    public List<FriendSuggestion> getFriendSuggestions(long userId, int limit) {
+        RequestLimits.requireLimit(limit, "Количество предложений друзей должно");
+        if (!userDao.userExists(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        return userDao.getFriendSuggestions(userId, limit);
+    }
+
+    private void validateImportedUser(User user) {
+        if (user.getBirthday() == null) {
+            throw new ValidationException("birthday: Дата рождения обязательна");
+        }
+        validateUser(user);
+    }
+
+    private static Set<Long> referencedUserIds(List<Friendship> friendships) {
+        Set<Long> userIds = new HashSet<>();
+        for (Friendship friendship : friendships) {
+            if (friendship != null) {
+                userIds.add(friendship.getUserId());
+                userIds.add(friendship.getFriendId());
+            }
+        }
+        return userIds;
+    }
+
+    private String validateFriendship(Friendship friendship, Set<Long> existingUserIds) {
+        if (friendship == null) {
+            return "Связь дружбы не передана";
+        }
+        if (friendship.getUserId() == friendship.getFriendId()) {
+            return "Пользователь не может добавить себя в друзья";
+        }
+        if (!existingUserIds.contains(friendship.getUserId())) {
+            return "Пользователь с id=" + friendship.getUserId() + " не найден";
+        }
+        if (!existingUserIds.contains(friendship.getFriendId())) {
+            return "Пользователь с id=" + friendship.getFriendId() + " не найден";
+        }
+        return null;
     }
 
     private void validateUser(User user) {
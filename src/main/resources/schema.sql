@@ -15,9 +15,12 @@ CREATE TABLE IF NOT EXISTS films (
     description VARCHAR(200),
     release_date DATE NOT NULL,
     duration INTEGER NOT NULL,
-    mpa_id INTEGER REFERENCES mpa_ratings (mpa_id)
+    mpa_id INTEGER REFERENCES mpa_ratings (mpa_id),
+    likes_count INTEGER DEFAULT 0 NOT NULL -- денормализованное число строк в likes для фильма
 );
 
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, film_id);
+
 CREATE TABLE IF NOT EXISTS users (
     user_id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) PRIMARY KEY,
     email VARCHAR(100) NOT NULL,
@@ -26,19 +29,27 @@ CREATE TABLE IF NOT EXISTS users (
     birthday DATE NOT NULL
 );
 
+-- Имена ограничений friends и likes используются в коде: по ним нарушение внешнего ключа
+-- превращается в 404 для нужной сущности вместо предварительных проверок существования
 CREATE TABLE IF NOT EXISTS friends (
-    user_id BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
-    friend_id BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
+    user_id BIGINT CONSTRAINT fk_friends_user REFERENCES users (user_id) ON DELETE CASCADE,
+    friend_id BIGINT CONSTRAINT fk_friends_friend REFERENCES users (user_id) ON DELETE CASCADE,
     confirmed BOOLEAN DEFAULT FALSE, -- false = не подтверждено, true = подтверждено
-    PRIMARY KEY (user_id, friend_id)
+    CONSTRAINT pk_friends PRIMARY KEY (user_id, friend_id)
 );
 
 CREATE TABLE IF NOT EXISTS likes (
-    film_id BIGINT REFERENCES films (film_id) ON DELETE CASCADE,
-    user_id BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
-    PRIMARY KEY (film_id, user_id)
+    film_id BIGINT CONSTRAINT fk_likes_film REFERENCES films (film_id) ON DELETE CASCADE,
+    user_id BIGINT CONSTRAINT fk_likes_user REFERENCES users (user_id) ON DELETE CASCADE,
+    CONSTRAINT pk_likes PRIMARY KEY (film_id, user_id)
 );
 
+-- likes_count меняется триггером внутри того же INSERT или DELETE по likes, поэтому лайк — один оператор
+CREATE TRIGGER IF NOT EXISTS trg_likes_count_insert AFTER INSERT ON likes FOR EACH ROW
+    CALL 'ru.yandex.practicum.filmorate.data.repository.LikesCountTrigger';
+CREATE TRIGGER IF NOT EXISTS trg_likes_count_delete AFTER DELETE ON likes FOR EACH ROW
+    CALL 'ru.yandex.practicum.filmorate.data.repository.LikesCountTrigger';
+
 CREATE TABLE IF NOT EXISTS film_genres (
     film_id BIGINT REFERENCES films (film_id) ON DELETE CASCADE,
     genre_id INTEGER REFERENCES genres (genre_id),
@@ -1,13 +1,47 @@
 package ru.yandex.practicum.filmorate;
 
+import io.r2dbc.spi.ConnectionFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.reactive.DispatcherHandler;
+import ru.yandex.practicum.filmorate.profiling.ProfilingDataSource;
+import ru.yandex.practicum.filmorate.profiling.QueryBudgetFilter;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class FilmorateApplicationTests {
 
+    @Autowired
+    private ApplicationContext context;
+
     @Test
     void contextLoads() {
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldStartServletStackWithoutReactiveBeans() {
+        assertThat(context).isInstanceOf(WebApplicationContext.class);
+        assertThat(context.getBeanNamesForType(DataSource.class)).isNotEmpty();
+        assertThat(context.getBeanNamesForType(PlatformTransactionManager.class)).hasSize(1);
+        assertThat(context.getBeanNamesForType(ConnectionFactory.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(ReactiveTransactionManager.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(DatabaseClient.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(DispatcherHandler.class)).isEmpty();
+    }
+
+    @Test
+    void shouldNotProfileJdbcByDefault() {
+        assertThat(context.getBean(DataSource.class)).isNotInstanceOf(ProfilingDataSource.class);
+        assertThat(context.getBeanNamesForType(QueryBudgetFilter.class)).isEmpty();
+    }
+
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.GenreService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    private static final String FILM = "{\"name\":\"Film\",\"description\":\"Description\"," +
+            "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private FilmService filmService;
+
+    @SpyBean
+    private GenreService genreService;
+
+    @Test
+    void shouldAnswerNotModifiedUntilFilmIsWritten() throws Exception {
+        String body = mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/films/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(filmService);
+        mockMvc.perform(get("/films/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(filmService, never()).getFilm(anyLong());
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(FILM.replace("{\"name\":\"Film\"", "{\"id\":" + id + ",\"name\":\"Renamed\"")))
+                .andExpect(status().isOk());
+        String newEtag = mockMvc.perform(get("/films/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotNull().isNotEqualTo(etag);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForCachedList() throws Exception {
+        String etag = mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/genres").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldNotSendTagWithNotFound() throws Exception {
+        mockMvc.perform(get("/films/{id}", 999_999))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/users/{id}", 999_999).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldNotSendTagWithServerError() throws Exception {
+        doThrow(new IllegalStateException("сбой")).when(genreService).getGenreById(1);
+        doThrow(new IllegalStateException("сбой")).when(filmService).getPopularFilms(7);
+
+        mockMvc.perform(get("/genres/{id}", 1))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/films/popular").param("count", "7"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponseCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SerializedResponseCache cache = new SerializedResponseCache(new ObjectMapper(),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+            true, 2);
+
+    private List<String> load() {
+        loads.incrementAndGet();
+        return List.of("a", "b");
+    }
+
+    private static ServletWebRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/genres");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    @Test
+    void shouldServeCachedBytesUntilTagChanges() {
+        ResponseEntity<byte[]> first = cache.respond("genres", "\"v1\"", this::load, request(null));
+        ResponseEntity<byte[]> second = cache.respond("genres", "\"v1\"", this::load, request(null));
+
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"a\",\"b\"]");
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(loads).hasValue(1);
+
+        cache.respond("genres", "\"v2\"", this::load, request(null));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldServeGzipOnlyWhenAccepted() throws IOException {
+        ResponseEntity<byte[]> plain = cache.respond("genres", "\"v1\"", this::load, request(null));
+        ResponseEntity<byte[]> gzipped = cache.respond("genres", "\"v1\"", this::load, request("gzip, deflate"));
+
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getBody());
+        }
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedKey() {
+        cache.respond("popular:1", "\"v1\"", this::load, request(null));
+        cache.respond("popular:2", "\"v1\"", this::load, request(null));
+        cache.respond("popular:1", "\"v1\"", this::load, request(null));
+        cache.respond("popular:3", "\"v1\"", this::load, request(null));
+        assertThat(loads).hasValue(3);
+
+        cache.respond("popular:1", "\"v1\"", this::load, request(null));
+        cache.respond("popular:3", "\"v1\"", this::load, request(null));
+        assertThat(loads).hasValue(3);
+
+        cache.respond("popular:2", "\"v1\"", this::load, request(null));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void shouldHonourQualityValuesInAcceptEncoding() {
+        assertThat(SerializedResponseCache.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip; q=0.0, *;q=1")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("*;q=0")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("identity")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+
+        ResponseEntity<byte[]> refused = cache.respond("genres", "\"v1\"", this::load, request("gzip;q=0"));
+        assertThat(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+}
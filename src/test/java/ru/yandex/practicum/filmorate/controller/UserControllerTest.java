@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldSkipFriendIdsWhenFriendsParameterIsFalse() throws Exception {
+        long user = addUser("user");
+        long friend = addUser("friend");
+        long mutual = addUser("mutual");
+        addFriend(user, friend);
+        addFriend(user, mutual);
+        addFriend(friend, mutual);
+        addFriend(mutual, user);
+
+        mockMvc.perform(get("/users/{id}/friends", user))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].friends[*]", mutual).value(contains((int) user)));
+        mockMvc.perform(get("/users/{id}/friends", user).param("friends", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].friends[*]", mutual).value(empty()));
+
+        mockMvc.perform(get("/users/{id}/friends/common/{otherId}", user, friend).param("friends", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(mutual))
+                .andExpect(jsonPath("$[0].friends").isEmpty());
+        mockMvc.perform(get("/users").param("friends", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].friends[*]", user).value(empty()));
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].friends[*]", user).value(contains((int) friend, (int) mutual)));
+    }
+
+    private long addUser(String login) throws Exception {
+        String body = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + login + "@mail.com\",\"login\":\"" + login + "\"," +
+                                "\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private void addFriend(long userId, long friendId) throws Exception {
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", userId, friendId))
+                .andExpect(status().isOk());
+    }
+}
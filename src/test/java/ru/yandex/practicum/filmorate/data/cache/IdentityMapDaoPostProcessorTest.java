@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.data.dao.UserDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdentityMapDaoPostProcessorTest {
+    private final UserDao target = mock(UserDao.class);
+    private final UserDao userDao = (UserDao) new IdentityMapDaoPostProcessor()
+            .postProcessAfterInitialization(target, "UserDao");
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void shouldLoadEntityOncePerScope() {
+        User user = user(1);
+        when(target.getUser(1)).thenReturn(user);
+
+        try (RequestIdentityMap.Scope scope = RequestIdentityMap.open()) {
+            assertThat(userDao.getUser(1)).isSameAs(user);
+            assertThat(userDao.getUser(1)).isSameAs(user);
+            assertThat(scope.hits()).isEqualTo(1);
+            assertThat(scope.misses()).isEqualTo(1);
+        }
+        verify(target, times(1)).getUser(1);
+
+        try (RequestIdentityMap.Scope ignored = RequestIdentityMap.open()) {
+            userDao.getUser(1);
+        }
+        verify(target, times(2)).getUser(1);
+    }
+
+    @Test
+    void shouldClearScopeOnWrite() {
+        when(target.userExists(1)).thenReturn(true);
+
+        try (RequestIdentityMap.Scope scope = RequestIdentityMap.open()) {
+            userDao.userExists(1);
+            userDao.addFriend(1, 2);
+            userDao.userExists(1);
+            assertThat(scope.hits()).isZero();
+        }
+        verify(target, times(2)).userExists(1);
+        verify(target).addFriend(1, 2);
+    }
+
+    @Test
+    void shouldTreatAnyMethodOutsideReadListAsWrite() {
+        when(target.userExists(1)).thenReturn(true);
+
+        try (RequestIdentityMap.Scope scope = RequestIdentityMap.open()) {
+            userDao.userExists(1);
+            userDao.getFriends(1);
+            userDao.userExists(1);
+            assertThat(scope.hits()).isEqualTo(1);
+
+            userDao.confirmFriend(1, 2);
+            userDao.userExists(1);
+            assertThat(scope.hits()).isEqualTo(1);
+        }
+        verify(target, times(2)).userExists(1);
+    }
+
+    @Test
+    void shouldPassThroughOutsideScopeAndNotCacheFailures() {
+        when(target.getUser(2)).thenThrow(new NotFoundException("Пользователь с id=2 не найден"));
+        when(target.getUser(1)).thenReturn(user(1));
+
+        userDao.getUser(1);
+        userDao.getUser(1);
+        verify(target, times(2)).getUser(1);
+
+        try (RequestIdentityMap.Scope ignored = RequestIdentityMap.open()) {
+            assertThrows(NotFoundException.class, () -> userDao.getUser(2));
+            assertThrows(NotFoundException.class, () -> userDao.getUser(2));
+        }
+        verify(target, times(2)).getUser(2);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.data.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.data.repository.JdbcGenreRepository;
+import ru.yandex.practicum.filmorate.data.repository.JdbcMpaRepository;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ReferenceDataCache.class, JdbcMpaRepository.class, JdbcGenreRepository.class})
+class ReferenceDataCacheTest {
+
+    private final ReferenceDataCache referenceData;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldReturnCanonicalInstances() {
+        referenceData.reload();
+
+        MpaRating mpa = referenceData.getMpa(3);
+        assertThat(mpa.getName()).isEqualTo("PG-13");
+        assertThat(referenceData.getMpa(3)).isSameAs(mpa);
+        assertThat(referenceData.getAllMpaRatings()).hasSize(5).contains(mpa);
+
+        Genre genre = referenceData.getGenre(6);
+        assertThat(genre.getName()).isEqualTo("Боевик");
+        assertThat(referenceData.getAllGenres()).hasSize(6).element(5).isSameAs(genre);
+    }
+
+    @Test
+    void shouldReturnNullForUnknownIds() {
+        referenceData.reload();
+
+        assertThat(referenceData.getMpa(0)).isNull();
+        assertThat(referenceData.getMpa(999)).isNull();
+        assertThat(referenceData.getGenre(-1)).isNull();
+        assertThat(referenceData.getGenre(999)).isNull();
+    }
+
+    @Test
+    void shouldPickUpChangedSeedDataOnReload() {
+        referenceData.reload();
+        assertThat(referenceData.getGenre(7)).isNull();
+
+        jdbcTemplate.update("MERGE INTO genres (genre_id, name) VALUES (7, 'Фантастика')");
+        assertThat(referenceData.getGenre(7)).isNull();
+
+        referenceData.reload();
+        assertThat(referenceData.getGenre(7).getName()).isEqualTo("Фантастика");
+        assertThat(referenceData.getAllGenres()).hasSize(7);
+    }
+}
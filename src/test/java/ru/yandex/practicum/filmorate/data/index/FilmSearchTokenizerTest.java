@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilmSearchTokenizerTest {
+
+    @Test
+    void shouldReduceRussianWordFormsToOneTerm() {
+        assertThat(FilmSearchTokenizer.terms("Фильм, фильмы, фильмами и ФИЛЬМОВ"))
+                .containsExactly("фильм");
+        assertThat(FilmSearchTokenizer.terms("комедия комедии")).containsExactly("комед");
+        assertThat(FilmSearchTokenizer.terms("Ёлка ёлки")).containsExactly("елк");
+    }
+
+    @Test
+    void shouldStemEnglishSuffixesAndDropStopWords() {
+        assertThat(FilmSearchTokenizer.terms("The stories of running dogs and boxes"))
+                .containsExactly("story", "run", "dog", "box");
+        assertThat(FilmSearchTokenizer.terms("running runs stopped stop")).containsExactly("run", "stop");
+        assertThat(FilmSearchTokenizer.terms("falling passed added")).containsExactly("fall", "pass", "add");
+    }
+
+    @Test
+    void shouldKeepNumbersAndSkipSingleLetters() {
+        assertThat(FilmSearchTokenizer.terms("Терминатор 2: с 1991 г.")).containsExactly("терминатор", "1991");
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import(FriendGraph.class)
+class FriendGraphTest {
+
+    private final FriendGraph friendGraph;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM friends");
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM users");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, email, login, name, birthday) " +
+                    "VALUES (?, 'user@mail.com', 'user', 'user', ?)", id, LocalDate.of(1990, 1, 1));
+        }
+    }
+
+    @Test
+    void shouldRebuildSortedAdjacencyFromFriendsTable() {
+        insertFriend(1, 4);
+        insertFriend(1, 2);
+        insertFriend(2, 4);
+        insertFriend(3, 1);
+
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.getFriendIds(1)).containsExactly(2L, 4L);
+        assertThat(friendGraph.getFriendIds(3)).containsExactly(1L);
+        assertThat(friendGraph.getFriendIds(5)).isEmpty();
+        assertThat(friendGraph.getCommonFriendIds(1, 2)).containsExactly(4L);
+    }
+
+    @Test
+    void shouldRereadFriendListsOfRefreshedUsers() {
+        insertFriend(1, 4);
+        insertFriend(4, 3);
+        friendGraph.rebuild();
+
+        insertFriend(1, 5);
+        insertFriend(1, 2);
+        insertFriend(1, 3);
+        jdbcTemplate.update("DELETE FROM friends WHERE user_id = 1 AND friend_id = 4");
+        insertFriend(2, 3);
+        assertThat(friendGraph.getFriendIds(1)).containsExactly(4L);
+
+        friendGraph.refresh(List.of(1L));
+        assertThat(friendGraph.getFriendIds(1)).containsExactly(2L, 3L, 5L);
+        assertThat(friendGraph.getFriendIds(2)).isEmpty();
+        assertThat(friendGraph.getCommonFriendIds(1, 4)).containsExactly(3L);
+
+        jdbcTemplate.update("DELETE FROM friends WHERE user_id = 4");
+        friendGraph.refresh(List.of(2L, 4L));
+        assertThat(friendGraph.getFriendIds(2)).containsExactly(3L);
+        assertThat(friendGraph.getFriendIds(4)).isEmpty();
+    }
+
+    @Test
+    void shouldRankSuggestionsByMutualFriendsExcludingSelfAndFriends() {
+        insertFriend(1, 2);
+        insertFriend(1, 3);
+        insertFriend(2, 1);
+        insertFriend(2, 3);
+        insertFriend(2, 4);
+        insertFriend(2, 5);
+        insertFriend(3, 5);
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.suggestFriends(1, 10)).containsExactly(
+                new FriendGraph.Candidate(5, 2),
+                new FriendGraph.Candidate(4, 1));
+        assertThat(friendGraph.suggestFriends(1, 1)).containsExactly(new FriendGraph.Candidate(5, 2));
+        assertThat(friendGraph.suggestFriends(4, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldSampleHighDegreeNodesAndRespectTimeBudget() {
+        insertFriend(1, 2);
+        insertFriend(2, 3);
+        insertFriend(2, 4);
+        insertFriend(2, 5);
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.suggestFriends(1, 10, 2, Long.MAX_VALUE / 2))
+                .extracting(FriendGraph.Candidate::userId)
+                .containsExactly(3L, 5L);
+        assertThat(friendGraph.suggestFriends(1, 10, 1000, -1)).isEmpty();
+    }
+
+    private void insertFriend(long userId, long friendId) {
+        jdbcTemplate.update("INSERT INTO friends (user_id, friend_id, confirmed) VALUES (?, ?, false)",
+                userId, friendId);
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import(LikesMatrix.class)
+class LikesMatrixTest {
+
+    private final LikesMatrix likesMatrix;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM film_genres");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM friends");
+        jdbcTemplate.update("DELETE FROM users");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO films (film_id, name, description, release_date, duration, mpa_id) " +
+                    "VALUES (?, 'Film', 'Description', ?, 100, 1)", id, LocalDate.of(2000, 1, 1));
+            jdbcTemplate.update("INSERT INTO users (user_id, email, login, name, birthday) " +
+                    "VALUES (?, 'user@mail.com', 'user', 'user', ?)", id, LocalDate.of(1990, 1, 1));
+        }
+    }
+
+    @Test
+    void shouldRankFilmsByOverlapOfNeighbours() {
+        insertLike(1, 1);
+        insertLike(2, 1);
+        insertLike(1, 2);
+        insertLike(2, 2);
+        insertLike(3, 2);
+        insertLike(1, 3);
+        insertLike(4, 3);
+        insertLike(5, 4);
+        likesMatrix.rebuild();
+
+        assertThat(likesMatrix.getLikedFilmIds(1)).containsExactly(1L, 2L);
+        assertThat(likesMatrix.recommendFilmIds(1, 10)).containsExactly(3L, 4L);
+        assertThat(likesMatrix.recommendFilmIds(1, 1)).containsExactly(3L);
+        assertThat(likesMatrix.recommendFilmIds(5, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRereadLikesOfRefreshedUsersIntoBothMappings() {
+        insertLike(1, 1);
+        insertLike(5, 1);
+        likesMatrix.rebuild();
+
+        insertLike(1, 2);
+        insertLike(2, 2);
+        insertLike(3, 2);
+        jdbcTemplate.update("DELETE FROM likes WHERE film_id = 5 AND user_id = 1");
+        likesMatrix.refresh(List.of(1L, 2L));
+        assertThat(likesMatrix.getLikedFilmIds(1)).containsExactly(1L);
+        assertThat(likesMatrix.recommendFilmIds(1, 10)).containsExactly(2L, 3L);
+
+        jdbcTemplate.update("DELETE FROM likes WHERE user_id = 1");
+        jdbcTemplate.update("DELETE FROM likes WHERE film_id = 2");
+        likesMatrix.refresh(List.of(1L, 2L));
+        assertThat(likesMatrix.getLikedFilmIds(1)).isEmpty();
+        assertThat(likesMatrix.getLikedFilmIds(2)).containsExactly(1L, 3L);
+        assertThat(likesMatrix.recommendFilmIds(2, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceOnlyTouchedEntriesOnLike() {
+        insertLike(1, 1);
+        insertLike(2, 2);
+        insertLike(3, 3);
+        likesMatrix.rebuild();
+        Map<Long, long[]> filmsByUser = likesMatrix.filmsByUser();
+        long[] untouched = likesMatrix.getLikedFilmIds(2);
+
+        insertLike(4, 1);
+        likesMatrix.refresh(List.of(1L));
+
+        assertThat(likesMatrix.filmsByUser()).isSameAs(filmsByUser);
+        assertThat(likesMatrix.getLikedFilmIds(2)).isSameAs(untouched);
+        assertThat(likesMatrix.getLikedFilmIds(1)).containsExactly(1L, 4L);
+        assertThat(likesMatrix.recommendFilmIds(3, 10)).isEmpty();
+    }
+
+    private void insertLike(long filmId, long userId) {
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmId, userId);
+    }
+}
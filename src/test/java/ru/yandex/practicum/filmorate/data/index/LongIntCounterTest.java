@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntCounterTest {
+
+    @Test
+    void shouldCountKeysAcrossResizes() {
+        LongIntCounter counter = new LongIntCounter(1);
+        for (long key = 0; key < 10_000; key++) {
+            counter.increment(key * 1024);
+        }
+        counter.increment(0);
+        counter.increment(Long.MAX_VALUE);
+
+        assertThat(counter.size()).isEqualTo(10_001);
+        assertThat(counter.get(0)).isEqualTo(2);
+        assertThat(counter.get(1024 * 9_999L)).isEqualTo(1);
+        assertThat(counter.get(Long.MAX_VALUE)).isEqualTo(1);
+        assertThat(counter.get(1)).isZero();
+
+        Map<Long, Integer> visited = new HashMap<>();
+        counter.forEach(visited::put);
+        assertThat(visited).hasSize(10_001).containsEntry(0L, 2);
+    }
+
+    @Test
+    void shouldReturnTopKeysByCountThenKey() {
+        LongIntCounter counter = new LongIntCounter(4);
+        counter.add(10, 3);
+        counter.add(20, 5);
+        counter.add(30, 3);
+        counter.add(40, 1);
+        counter.increment(40);
+
+        assertThat(counter.topKeys(10)).containsExactly(20L, 10L, 30L, 40L);
+        assertThat(counter.topKeys(2)).containsExactly(20L, 10L);
+        assertThat(counter.topKeys(0)).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import(PopularityIndex.class)
+class PopularityIndexTest {
+
+    private final PopularityIndex popularityIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM likes");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO films (film_id, name, description, release_date, duration, mpa_id) " +
+                    "VALUES (?, 'Film', 'Description', ?, 100, 1)", id, LocalDate.of(2000, 1, 1));
+            jdbcTemplate.update("INSERT INTO users (user_id, email, login, name, birthday) " +
+                    "VALUES (?, 'user@mail.com', 'user', 'user', ?)", id, LocalDate.of(1990, 1, 1));
+        }
+    }
+
+    @Test
+    void shouldRebuildRankingFromLikesCountColumn() {
+        jdbcTemplate.update("UPDATE films SET likes_count = 2 WHERE film_id = 2");
+        jdbcTemplate.update("UPDATE films SET likes_count = 1 WHERE film_id = 3");
+
+        popularityIndex.rebuild();
+
+        assertThat(popularityIndex.getTopFilmIds(10)).containsExactly(2L, 3L, 1L);
+        assertThat(popularityIndex.getTopFilmIds(1)).containsExactly(2L);
+        assertThat(popularityIndex.getLikes(2)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReorderOnRefresh() {
+        popularityIndex.rebuild();
+        assertThat(popularityIndex.getTopFilmIds(3)).containsExactly(1L, 2L, 3L);
+
+        jdbcTemplate.update("UPDATE films SET likes_count = 1 WHERE film_id = 3");
+        jdbcTemplate.update("UPDATE films SET likes_count = 2 WHERE film_id = 2");
+        popularityIndex.refresh(List.of(2L, 3L));
+        assertThat(popularityIndex.getTopFilmIds(3)).containsExactly(2L, 3L, 1L);
+
+        jdbcTemplate.update("UPDATE films SET likes_count = 0 WHERE film_id = 2");
+        jdbcTemplate.update("INSERT INTO films (film_id, name, description, release_date, duration, mpa_id) " +
+                "VALUES (4, 'Film', 'Description', ?, 100, 1)", LocalDate.of(2000, 1, 1));
+        popularityIndex.refresh(List.of(2L, 4L));
+        assertThat(popularityIndex.getTopFilmIds(4)).containsExactly(3L, 1L, 2L, 4L);
+    }
+
+    @Test
+    void shouldDropFilmsMissingFromDatabaseOnRefresh() {
+        popularityIndex.rebuild();
+
+        popularityIndex.refresh(List.of(42L));
+        assertThat(popularityIndex.getTopFilmIds(10)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldReturnEmptyListForNonPositiveCount() {
+        popularityIndex.rebuild();
+
+        assertThat(popularityIndex.getTopFilmIds(0)).isEmpty();
+        assertThat(popularityIndex.getTopFilmIds(-5)).isEmpty();
+    }
+}
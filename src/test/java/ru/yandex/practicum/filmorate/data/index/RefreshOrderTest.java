@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.data.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshOrderTest {
+    private final RefreshOrder<Long> order = new RefreshOrder<>();
+
+    @Test
+    void shouldRejectReadThatStartedBeforeAlreadyAppliedOne() {
+        long first = order.nextTicket();
+        long second = order.nextTicket();
+
+        assertThat(order.accept(1L, second)).isTrue();
+        assertThat(order.accept(1L, first)).isFalse();
+        assertThat(order.accept(2L, first)).isTrue();
+    }
+
+    @Test
+    void shouldKeepKeysRefreshedDuringRebuild() {
+        long rebuild = order.nextTicket();
+        long refresh = order.nextTicket();
+        long stale = order.nextTicket();
+        assertThat(order.accept(1L, refresh)).isTrue();
+
+        assertThat(order.acceptRebuild(rebuild)).isTrue();
+        assertThat(order.refreshedAfter(rebuild)).containsExactly(1L);
+        order.completeRebuild(rebuild);
+
+        assertThat(order.acceptRebuild(rebuild)).isFalse();
+        assertThat(order.accept(2L, rebuild)).isFalse();
+        assertThat(order.accept(2L, stale)).isTrue();
+    }
+
+    @Test
+    void shouldRejectRefreshesOlderThanAppliedRebuild() {
+        long refresh = order.nextTicket();
+        long rebuild = order.nextTicket();
+        order.completeRebuild(rebuild);
+
+        assertThat(order.accept(1L, refresh)).isFalse();
+        assertThat(order.refreshedAfter(rebuild)).isEmpty();
+    }
+
+    @Test
+    void shouldApplyDeltasInAnyOrderButSkipThoseSeenByRebuild() {
+        long first = order.nextTicket();
+        long second = order.nextTicket();
+        assertThat(order.acceptDelta(1L, second)).isTrue();
+        assertThat(order.acceptDelta(1L, first)).isTrue();
+        assertThat(order.accept(1L, first)).isFalse();
+
+        long rebuild = order.nextTicket();
+        order.completeRebuild(rebuild);
+        assertThat(order.acceptDelta(1L, second)).isFalse();
+        assertThat(order.acceptDelta(1L, order.nextTicket())).isTrue();
+    }
+
+    @Test
+    void shouldPruneAppliedKeysOnceNoEarlierOperationIsInFlight() {
+        long slow = order.nextTicket();
+        long fast = order.nextTicket();
+        assertThat(order.accept(1L, fast)).isTrue();
+        order.release(fast);
+        assertThat(order.size()).isEqualTo(1);
+        assertThat(order.accept(1L, slow)).isFalse();
+
+        order.release(slow);
+        assertThat(order.size()).isZero();
+
+        for (long key = 0; key < 1_000; key++) {
+            long ticket = order.nextTicket();
+            assertThat(order.accept(key, ticket)).isTrue();
+            order.release(ticket);
+        }
+        assertThat(order.size()).isZero();
+    }
+}
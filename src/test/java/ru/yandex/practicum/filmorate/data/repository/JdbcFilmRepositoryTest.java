@@ -7,20 +7,41 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.data.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.data.index.FriendGraph;
+import ru.yandex.practicum.filmorate.data.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.data.index.PopularityIndex;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.LikesCountDrift;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.profiling.QueryCountAssertions.EnableQueryCounting;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.profiling.QueryCountAssertions.assertMaxQueries;
+import static ru.yandex.practicum.filmorate.profiling.QueryCountAssertions.countQueries;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import({JdbcFilmRepository.class, JdbcUserRepository.class, JdbcMpaRepository.class})
+@Import({JdbcFilmRepository.class, JdbcUserRepository.class, JdbcMpaRepository.class, JdbcGenreRepository.class,
+        ReferenceDataCache.class, PopularityIndex.class, FriendGraph.class, LikesMatrix.class,
+        FilmSearchIndex.class})
+@EnableQueryCounting
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 class JdbcFilmRepositoryTest {
 
     @Autowired
@@ -32,6 +53,18 @@ class JdbcFilmRepositoryTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PopularityIndex popularityIndex;
+
+    @Autowired
+    private LikesMatrix likesMatrix;
+
+    @Autowired
+    private FilmSearchIndex searchIndex;
+
     private MpaRating createMpaRating(int id, String name) {
         MpaRating mpa = new MpaRating();
         mpa.setId(id);
@@ -63,6 +96,9 @@ class JdbcFilmRepositoryTest {
                 "(3, 'PG-13', 'Детям до 13 лет просмотр не желателен'), " +
                 "(4, 'R', 'Лицам до 17 лет обязательно присутствие взрослого'), " +
                 "(5, 'NC-17', 'Лицам до 18 лет просмотр запрещён')");
+        popularityIndex.rebuild();
+        likesMatrix.rebuild();
+        searchIndex.rebuild();
     }
 
     @Test
@@ -161,6 +197,199 @@ class JdbcFilmRepositoryTest {
                 .containsExactly(film1.getId(), film2.getId());
     }
 
+    @Test
+    void shouldBreakPopularityTiesByFilmId() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = filmRepository.addFilm(createTestFilm());
+        Film film3 = filmRepository.addFilm(createTestFilm());
+
+        filmRepository.addLike(film3.getId(), user.getId());
+
+        assertThat(filmRepository.getPopularFilms(10))
+                .extracting(Film::getId)
+                .containsExactly(film3.getId(), film1.getId(), film2.getId());
+
+        filmRepository.removeLike(film3.getId(), user.getId());
+        filmRepository.removeLike(film3.getId(), user.getId());
+
+        assertThat(filmRepository.getPopularFilms(2))
+                .extracting(Film::getId)
+                .containsExactly(film1.getId(), film2.getId());
+    }
+
+    @Test
+    void shouldLeaveIndexesUntouchedWhenLikeIsRolledBack() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = filmRepository.addFilm(createTestFilm());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            filmRepository.addLike(film2.getId(), user.getId());
+            status.setRollbackOnly();
+        });
+        assertThat(popularityIndex.getLikes(film2.getId())).isZero();
+        assertThat(likesMatrix.getLikedFilmIds(user.getId())).isEmpty();
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film1.getId());
+
+        filmRepository.addLike(film2.getId(), user.getId());
+        assertThat(popularityIndex.getLikes(film2.getId())).isEqualTo(1);
+        assertThat(likesMatrix.getLikedFilmIds(user.getId())).containsExactly(film2.getId());
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film2.getId());
+    }
+
+    @Test
+    void shouldKeepLikesCountInStepWithLikes() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        Film film = filmRepository.addFilm(createTestFilm());
+
+        filmRepository.addLike(film.getId(), user1.getId());
+        filmRepository.addLike(film.getId(), user1.getId());
+        filmRepository.addLike(film.getId(), user2.getId());
+        assertThat(filmRepository.removeLike(film.getId(), user1.getId())).isTrue();
+        assertThat(filmRepository.removeLike(film.getId(), user1.getId())).isFalse();
+
+        assertThat(filmRepository.getFilm(film.getId()).getLikesCount()).isEqualTo(1);
+        assertThat(filmRepository.findLikesCountDrift()).isEmpty();
+    }
+
+    @Test
+    void shouldWriteLikeInOneStatementAndApplyItToIndexes() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = filmRepository.addFilm(createTestFilm());
+        filmRepository.getPopularFilms(1);
+        likesMatrix.getLikedFilmIds(user.getId());
+
+        assertThat(countQueries(() -> filmRepository.addLike(film2.getId(), user.getId()))).isEqualTo(1);
+        assertThat(filmRepository.getFilm(film2.getId()).getLikesCount()).isEqualTo(1);
+        assertThat(popularityIndex.getLikes(film2.getId())).isEqualTo(1);
+        assertThat(likesMatrix.getLikedFilmIds(user.getId())).containsExactly(film2.getId());
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film2.getId());
+
+        assertThat(countQueries(() -> filmRepository.removeLike(film2.getId(), user.getId()))).isEqualTo(1);
+        assertThat(filmRepository.getFilm(film2.getId()).getLikesCount()).isZero();
+        assertThat(popularityIndex.getLikes(film2.getId())).isZero();
+        assertThat(likesMatrix.getLikedFilmIds(user.getId())).isEmpty();
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film1.getId());
+    }
+
+    @Test
+    void shouldThrowNotFoundForLikeOfUnknownFilmOrUser() {
+        User user = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        Film film = filmRepository.addFilm(createTestFilm());
+
+        NotFoundException filmMissing = assertThrows(NotFoundException.class,
+                () -> filmRepository.addLike(999L, user.getId()));
+        assertThat(filmMissing.getMessage()).contains("Фильм");
+        NotFoundException userMissing = assertThrows(NotFoundException.class,
+                () -> filmRepository.addLike(film.getId(), 999L));
+        assertThat(userMissing.getMessage()).contains("Пользователь");
+        assertThat(filmRepository.getFilm(film.getId()).getLikesCount()).isZero();
+    }
+
+    @Test
+    void shouldReportAndRepairLikesCountDrift() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = filmRepository.addFilm(createTestFilm());
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", film2.getId(), user.getId());
+        assertThat(filmRepository.findLikesCountDrift()).isEmpty();
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE film_id = ?", film1.getId());
+        jdbcTemplate.update("UPDATE films SET likes_count = 0 WHERE film_id = ?", film2.getId());
+
+        assertThat(filmRepository.findLikesCountDrift())
+                .extracting(LikesCountDrift::getFilmId, LikesCountDrift::getStoredCount,
+                        LikesCountDrift::getActualCount)
+                .containsExactly(tuple(film1.getId(), 5, 0), tuple(film2.getId(), 0, 1));
+
+        assertThat(filmRepository.repairLikesCount()).isEqualTo(2);
+        assertThat(filmRepository.findLikesCountDrift()).isEmpty();
+        assertThat(filmRepository.getPopularFilms(1))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+    }
+
+    @Test
+    void shouldApplyLikeBatchIdempotently() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = filmRepository.addFilm(createTestFilm());
+        filmRepository.addLike(film1.getId(), user1.getId());
+
+        filmRepository.applyLikes(
+                List.of(new Like(film1.getId(), user1.getId()), new Like(film2.getId(), user1.getId()),
+                        new Like(film2.getId(), user2.getId())),
+                List.of(new Like(film1.getId(), user1.getId()), new Like(film1.getId(), user2.getId())));
+
+        assertThat(filmRepository.getFilm(film1.getId()).getLikes()).isEmpty();
+        assertThat(filmRepository.getFilm(film2.getId()))
+                .satisfies(film -> {
+                    assertThat(film.getLikes()).containsExactlyInAnyOrder(user1.getId(), user2.getId());
+                    assertThat(film.getLikesCount()).isEqualTo(2);
+                });
+        assertThat(filmRepository.findLikesCountDrift()).isEmpty();
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film2.getId());
+    }
+
+    @Test
+    void shouldLoadAllFilmsWithConstantNumberOfQueries() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        for (int i = 0; i < 5; i++) {
+            Film film = filmRepository.addFilm(createTestFilm());
+            filmRepository.addLike(film.getId(), user.getId());
+        }
+
+        List<Film> films = assertMaxQueries(2, () -> filmRepository.getAllFilms());
+
+        assertThat(films).hasSize(5).allSatisfy(film -> assertThat(film.getLikes()).containsExactly(user.getId()));
+        assertThat(countQueries(() -> filmRepository.getPopularFilms(5))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldRecommendFilmsLikedByOverlappingUsers() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        User similar = userRepository.addUser(createTestUser("similar@mail.com", "similar"));
+        User other = userRepository.addUser(createTestUser("other@mail.com", "other"));
+        Film shared = filmRepository.addFilm(createTestFilm());
+        Film recommended = filmRepository.addFilm(createTestFilm());
+        Film unrelated = filmRepository.addFilm(createTestFilm());
+
+        filmRepository.addLike(shared.getId(), user.getId());
+        filmRepository.addLike(shared.getId(), similar.getId());
+        filmRepository.applyLikes(List.of(new Like(recommended.getId(), similar.getId())), List.of());
+        filmRepository.addLike(unrelated.getId(), other.getId());
+
+        assertThat(filmRepository.getRecommendedFilms(user.getId(), 10))
+                .extracting(Film::getId)
+                .containsExactly(recommended.getId());
+
+        filmRepository.addLike(recommended.getId(), user.getId());
+        assertThat(filmRepository.getRecommendedFilms(user.getId(), 10)).isEmpty();
+        assertThat(filmRepository.getRecommendedFilms(other.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void shouldAddFilmsInBatchWithGeneratedIdsAndGenres() {
+        Film film1 = createTestFilm();
+        film1.setName("Batch 1");
+        film1.getGenres().add(new Genre(1, "Комедия"));
+        film1.getGenres().add(new Genre(4, "Триллер"));
+        Film film2 = createTestFilm();
+        film2.setName("Batch 2");
+        film2.setMpa(createMpaRating(2, "PG"));
+
+        List<Film> added = filmRepository.addFilms(List.of(film1, film2));
+
+        assertThat(added).extracting(Film::getId).containsExactly(1L, 2L);
+        assertThat(filmRepository.getFilm(2L).getName()).isEqualTo("Batch 2");
+        assertThat(jdbcTemplate.queryForList("SELECT genre_id FROM film_genres WHERE film_id = 1 ORDER BY genre_id",
+                Long.class)).containsExactly(1L, 4L);
+        assertThat(filmRepository.getPopularFilms(10)).hasSize(2);
+    }
+
     @Test
     void shouldGetAllFilms() {
         Film film1 = createTestFilm();
@@ -178,6 +407,129 @@ class JdbcFilmRepositoryTest {
                 .contains(film1.getId(), film2.getId());
     }
 
+    @Test
+    void shouldLoadLikesAndMpaForAllFilms() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+
+        Film film1 = filmRepository.addFilm(createTestFilm());
+        Film film2 = createTestFilm();
+        film2.setMpa(createMpaRating(3, "PG-13"));
+        film2 = filmRepository.addFilm(film2);
+
+        filmRepository.addLike(film1.getId(), user1.getId());
+        filmRepository.addLike(film1.getId(), user2.getId());
+        filmRepository.addLike(film2.getId(), user2.getId());
+
+        List<Film> allFilms = filmRepository.getAllFilms();
+
+        assertThat(allFilms).hasSize(2);
+        assertThat(allFilms.get(0).getLikes()).containsExactlyInAnyOrder(user1.getId(), user2.getId());
+        assertThat(allFilms.get(0).getMpa())
+                .hasFieldOrPropertyWithValue("id", 1)
+                .hasFieldOrPropertyWithValue("name", "G");
+        assertThat(allFilms.get(1).getLikes()).containsExactly(user2.getId());
+        assertThat(allFilms.get(1).getMpa())
+                .hasFieldOrPropertyWithValue("id", 3)
+                .hasFieldOrPropertyWithValue("description", "Детям до 13 лет просмотр не желателен");
+    }
+
+    @Test
+    void shouldGetFilmsPageAfterCursor() {
+        for (int i = 1; i <= 5; i++) {
+            Film film = createTestFilm();
+            film.setName("Film " + i);
+            filmRepository.addFilm(film);
+        }
+
+        List<Film> firstPage = filmRepository.getFilmsPage(0, 2);
+        assertThat(firstPage).extracting(Film::getId).containsExactly(1L, 2L);
+
+        List<Film> lastPage = filmRepository.getFilmsPage(4, 2);
+        assertThat(lastPage).extracting(Film::getName).containsExactly("Film 5");
+    }
+
+    @Test
+    void shouldStreamFilmsWithLikesAndGenreIds() {
+        User user = userRepository.addUser(createTestUser("user@mail.com", "user"));
+        Film film1 = createTestFilm();
+        film1.getGenres().add(new Genre(2, "Драма"));
+        film1.getGenres().add(new Genre(1, "Комедия"));
+        film1 = filmRepository.addFilm(film1);
+        Film film2 = filmRepository.addFilm(createTestFilm());
+        filmRepository.addLike(film2.getId(), user.getId());
+
+        List<Film> streamed = new ArrayList<>();
+        filmRepository.streamAllFilms(streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).containsExactly(film1.getId(), film2.getId());
+        assertThat(streamed.get(0).getGenres()).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(streamed.get(0).getLikes()).isEmpty();
+        assertThat(streamed.get(1).getLikes()).containsExactly(user.getId());
+        assertThat(streamed.get(1).getMpa().getName()).isEqualTo("G");
+    }
+
+    @Test
+    void shouldSearchFilmsByNameAndDescriptionRankedByMatchesAndLikes() {
+        User user = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        Film space = createTestFilm();
+        space.setName("Космическая одиссея");
+        space.setDescription("Фильм о полёте к Юпитеру");
+        space = filmRepository.addFilm(space);
+        Film comedy = createTestFilm();
+        comedy.setName("Комедия");
+        comedy.setDescription("Смешной фильм про космос");
+        comedy = filmRepository.addFilm(comedy);
+        Film drama = createTestFilm();
+        drama.setName("Драма");
+        drama.setDescription("Фильмы о людях");
+        drama = filmRepository.addFilm(drama);
+        filmRepository.addLike(drama.getId(), user.getId());
+
+        assertThat(filmRepository.searchFilms("фильмы", 10))
+                .extracting(Film::getId)
+                .containsExactly(drama.getId(), space.getId(), comedy.getId());
+        assertThat(filmRepository.searchFilms("космический фильм", 10))
+                .extracting(Film::getId)
+                .containsExactly(space.getId(), drama.getId(), comedy.getId());
+        assertThat(filmRepository.searchFilms("Юпитер", 10)).extracting(Film::getId).containsExactly(space.getId());
+
+        comedy.setName("Комедия о Юпитере");
+        filmRepository.updateFilm(comedy);
+        assertThat(filmRepository.searchFilms("юпитера", 1)).extracting(Film::getId).containsExactly(space.getId());
+        assertThat(filmRepository.searchFilms("смешной", 10)).extracting(Film::getId).containsExactly(comedy.getId());
+        assertThat(filmRepository.searchFilms("комедия", 10)).extracting(Film::getId).containsExactly(comedy.getId());
+        assertThat(filmRepository.searchFilms("и в на", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldIndexImportedFilmsOnlyAfterCommit() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Film film = createTestFilm();
+            film.setName("Running dogs " + i);
+            films.add(film);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            filmRepository.addFilms(films);
+            status.setRollbackOnly();
+        });
+        assertThat(searchIndex.search("dog", 10)).isEmpty();
+
+        List<Film> added = filmRepository.addFilms(films);
+        assertThat(filmRepository.searchFilms("run dog", 10))
+                .extracting(Film::getId)
+                .containsExactlyElementsOf(added.stream().map(Film::getId).toList());
+
+        Film renamed = added.get(1);
+        renamed.setName("Stopped cats");
+        filmRepository.updateFilm(renamed);
+        assertThat(filmRepository.searchFilms("running", 10))
+                .extracting(Film::getId)
+                .containsExactly(added.get(0).getId(), added.get(2).getId());
+        assertThat(filmRepository.searchFilms("stop", 10)).extracting(Film::getId).containsExactly(renamed.getId());
+    }
+
     private Film createTestFilm() {
         Film film = new Film();
         film.setName("Test");
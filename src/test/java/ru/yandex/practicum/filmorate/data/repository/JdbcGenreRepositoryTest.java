@@ -12,6 +12,7 @@ import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -94,6 +95,40 @@ class JdbcGenreRepositoryTest {
                 .containsExactlyInAnyOrder(1L, 2L);
     }
 
+    @Test
+    void shouldGetGenresByFilmIds() {
+        jdbcTemplate.update(
+                "INSERT INTO films (film_id, name, description, release_date, duration) " +
+                        "VALUES (1, 'Film 1', 'Description', ?, 120), (2, 'Film 2', 'Description', ?, 90), " +
+                        "(3, 'Film 3', 'Description', ?, 100)",
+                LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1), LocalDate.of(2022, 1, 1)
+        );
+        jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (1, 2), (1, 1), (2, 6)");
+
+        Map<Long, Set<Genre>> genres = genreRepository.getGenresByFilmIds(List.of(1L, 2L, 3L));
+
+        assertThat(genres).containsOnlyKeys(1L, 2L);
+        assertThat(genres.get(1L)).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(genres.get(2L)).extracting(Genre::getName).containsExactly("Боевик");
+    }
+
+    @Test
+    void shouldGetGenresOfAllFilmsWithoutIdList() {
+        jdbcTemplate.update(
+                "INSERT INTO films (film_id, name, description, release_date, duration) " +
+                        "VALUES (1, 'Film 1', 'Description', ?, 120), (2, 'Film 2', 'Description', ?, 90), " +
+                        "(3, 'Film 3', 'Description', ?, 100)",
+                LocalDate.of(2020, 1, 1), LocalDate.of(2021, 1, 1), LocalDate.of(2022, 1, 1)
+        );
+        jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (1, 2), (1, 1), (2, 6)");
+
+        Map<Long, Set<Genre>> genres = genreRepository.getGenresOfAllFilms();
+
+        assertThat(genres).containsOnlyKeys(1L, 2L);
+        assertThat(genres.get(1L)).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(genres.get(2L)).extracting(Genre::getName).containsExactly("Боевик");
+    }
+
     @Test
     void shouldGetGenresByIds() {
         List<Genre> genres = genreRepository.getByIds(List.of(1L, 3L, 5L));
@@ -7,26 +7,44 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.data.index.FriendGraph;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.profiling.QueryCountAssertions.EnableQueryCounting;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.profiling.QueryCountAssertions.assertMaxQueries;
 import static org.junit.jupiter.api.Assertions.*;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import(JdbcUserRepository.class)
+@Import({JdbcUserRepository.class, FriendGraph.class})
+@EnableQueryCounting
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 class JdbcUserRepositoryTest {
 
     @Autowired
     private JdbcUserRepository userRepository;
 
+    @Autowired
+    private FriendGraph friendGraph;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void setUp() {
         jdbcTemplate.execute("DELETE FROM likes");
@@ -35,6 +53,7 @@ class JdbcUserRepositoryTest {
         jdbcTemplate.execute("DELETE FROM users");
 
         jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1");
+        friendGraph.rebuild();
     }
 
     private User createTestUser(String email, String login) {
@@ -111,6 +130,21 @@ class JdbcUserRepositoryTest {
 
         assertThrows(NotFoundException.class,
                 () -> userRepository.addFriend(existingUser.getId(), 999L));
+        assertThrows(NotFoundException.class,
+                () -> userRepository.addFriend(999L, existingUser.getId()));
+    }
+
+    @Test
+    void shouldTreatRepeatedFriendWritesAsNoOps() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+
+        userRepository.addFriend(user1.getId(), user2.getId());
+        userRepository.addFriend(user1.getId(), user2.getId());
+        assertThat(userRepository.getFriends(user1.getId())).hasSize(1);
+
+        assertThat(userRepository.removeFriend(user1.getId(), user2.getId())).isTrue();
+        assertThat(userRepository.removeFriend(user1.getId(), user2.getId())).isFalse();
     }
 
     @Test
@@ -129,6 +163,31 @@ class JdbcUserRepositoryTest {
                 .containsExactly(commonFriend.getId());
     }
 
+    @Test
+    void shouldFindCommonFriendsAfterRemovalAndFillTheirFriendSets() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        User friend3 = userRepository.addUser(createTestUser("user3@mail.com", "user3"));
+        User friend4 = userRepository.addUser(createTestUser("user4@mail.com", "user4"));
+
+        userRepository.addFriendships(List.of(
+                new Friendship(user1.getId(), friend4.getId()),
+                new Friendship(user1.getId(), friend3.getId()),
+                new Friendship(user2.getId(), friend3.getId()),
+                new Friendship(user2.getId(), friend4.getId()),
+                new Friendship(friend3.getId(), user1.getId())));
+
+        List<User> commonFriends = assertMaxQueries(1,
+                () -> userRepository.getCommonFriends(user1.getId(), user2.getId()));
+        assertThat(commonFriends).extracting(User::getId).containsExactly(friend3.getId(), friend4.getId());
+        assertThat(commonFriends.get(0).getFriends()).containsExactly(user1.getId());
+
+        userRepository.removeFriend(user2.getId(), friend3.getId());
+        assertThat(userRepository.getCommonFriends(user1.getId(), user2.getId()))
+                .extracting(User::getId)
+                .containsExactly(friend4.getId());
+    }
+
     @Test
     void shouldReturnEmptyListWhenNoCommonFriends() {
         User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
@@ -137,6 +196,79 @@ class JdbcUserRepositoryTest {
         assertThat(userRepository.getCommonFriends(user1.getId(), user2.getId())).isEmpty();
     }
 
+    @Test
+    void shouldLoadFriendSetsForWholePage() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        User user3 = userRepository.addUser(createTestUser("user3@mail.com", "user3"));
+
+        userRepository.addFriend(user1.getId(), user2.getId());
+        userRepository.addFriend(user1.getId(), user3.getId());
+        userRepository.addFriend(user2.getId(), user3.getId());
+
+        List<User> friends = userRepository.getFriends(user1.getId());
+        assertThat(friends)
+                .extracting(User::getId)
+                .containsExactlyInAnyOrder(user2.getId(), user3.getId());
+        assertThat(friends)
+                .filteredOn(user -> user.getId() == user2.getId())
+                .first()
+                .satisfies(user -> assertThat(user.getFriends()).containsExactly(user3.getId()));
+
+        assertThat(userRepository.getAllUsers())
+                .filteredOn(user -> user.getId() == user1.getId())
+                .first()
+                .satisfies(user -> assertThat(user.getFriends())
+                        .containsExactlyInAnyOrder(user2.getId(), user3.getId()));
+    }
+
+    @Test
+    void shouldSkipFriendIdsWhenNotRequested() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        userRepository.addFriend(user1.getId(), user2.getId());
+
+        assertThat(userRepository.getAllUsers(false))
+                .hasSize(2)
+                .allSatisfy(user -> assertThat(user.getFriends()).isEmpty());
+    }
+
+    @Test
+    void shouldGetUsersAndFriendsPagesAfterCursor() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        User user3 = userRepository.addUser(createTestUser("user3@mail.com", "user3"));
+        User user4 = userRepository.addUser(createTestUser("user4@mail.com", "user4"));
+        userRepository.addFriend(user1.getId(), user2.getId());
+        userRepository.addFriend(user1.getId(), user3.getId());
+        userRepository.addFriend(user1.getId(), user4.getId());
+
+        assertThat(userRepository.getUsersPage(user1.getId(), 2))
+                .extracting(User::getId)
+                .containsExactly(user2.getId(), user3.getId());
+
+        List<User> friendsPage = userRepository.getFriendsPage(user1.getId(), user2.getId(), 10);
+        assertThat(friendsPage)
+                .extracting(User::getId)
+                .containsExactly(user3.getId(), user4.getId());
+    }
+
+    @Test
+    void shouldStreamUsersWithFriendIds() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        User user3 = userRepository.addUser(createTestUser("user3@mail.com", "user3"));
+        userRepository.addFriend(user1.getId(), user3.getId());
+        userRepository.addFriend(user1.getId(), user2.getId());
+
+        List<User> streamed = new ArrayList<>();
+        userRepository.streamAllUsers(streamed::add);
+
+        assertThat(streamed).extracting(User::getId).containsExactly(user1.getId(), user2.getId(), user3.getId());
+        assertThat(streamed.get(0).getFriends()).containsExactlyInAnyOrder(user2.getId(), user3.getId());
+        assertThat(streamed.get(1).getFriends()).isEmpty();
+    }
+
     @Test
     void shouldGetAllUsers() {
         User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
@@ -158,4 +290,60 @@ class JdbcUserRepositoryTest {
                 () -> assertFalse(userRepository.userExists(999L))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAddUsersInBatchAndAssignIds() {
+        List<User> users = List.of(
+                createTestUser("batch1@mail.com", "batch1"),
+                createTestUser("batch2@mail.com", "batch2"),
+                createTestUser("batch3@mail.com", "batch3"));
+
+        userRepository.addUsers(users);
+
+        assertThat(users).extracting(User::getId).containsExactly(1L, 2L, 3L);
+        assertThat(userRepository.getUser(2L)).hasFieldOrPropertyWithValue("login", "batch2");
+    }
+
+    @Test
+    void shouldAddFriendshipsInBatchSkippingExisting() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+        User user3 = userRepository.addUser(createTestUser("user3@mail.com", "user3"));
+        userRepository.addFriend(user1.getId(), user2.getId());
+
+        int inserted = userRepository.addFriendships(List.of(
+                new Friendship(user1.getId(), user2.getId()),
+                new Friendship(user1.getId(), user3.getId()),
+                new Friendship(user3.getId(), user2.getId())));
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(userRepository.getUser(user1.getId()).getFriends())
+                .containsExactlyInAnyOrder(user2.getId(), user3.getId());
+        assertThat(userRepository.getUser(user3.getId()).getFriends()).containsExactly(user2.getId());
+    }
+
+    @Test
+    void shouldLeaveFriendGraphUntouchedWhenFriendshipsAreRolledBack() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userRepository.addFriendships(List.of(new Friendship(user1.getId(), user2.getId())));
+            status.setRollbackOnly();
+        });
+        assertThat(friendGraph.getFriendIds(user1.getId())).isEmpty();
+
+        userRepository.addFriendships(List.of(new Friendship(user1.getId(), user2.getId())));
+        assertThat(friendGraph.getFriendIds(user1.getId())).containsExactly(user2.getId());
+    }
+
+    @Test
+    void shouldFindExistingUserIds() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1"));
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2"));
+
+        assertThat(userRepository.findExistingUserIds(Set.of(user1.getId(), user2.getId(), 999L)))
+                .containsExactlyInAnyOrder(user1.getId(), user2.getId());
+        assertThat(userRepository.findExistingUserIds(Set.of())).isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.data.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("reactive")
+@Import({R2dbcConfiguration.class, R2dbcFilmRepository.class, R2dbcUserRepository.class,
+        ReferenceDataCache.class, JdbcMpaRepository.class, JdbcGenreRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class R2dbcFilmRepositoryTest {
+
+    @Autowired
+    private R2dbcFilmRepository filmRepository;
+
+    @Autowired
+    private R2dbcUserRepository userRepository;
+
+    @Autowired
+    private ReferenceDataCache referenceData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM likes");
+        jdbcTemplate.execute("DELETE FROM film_genres");
+        jdbcTemplate.execute("DELETE FROM films");
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN film_id RESTART WITH 1");
+        jdbcTemplate.execute("DELETE FROM friends");
+        jdbcTemplate.execute("DELETE FROM users");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1");
+        referenceData.reload();
+    }
+
+    private Film createTestFilm(String name, long... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpa(new MpaRating(1, null, null));
+        for (long genreId : genreIds) {
+            film.getGenres().add(new Genre(genreId, null));
+        }
+        return film;
+    }
+
+    private User createTestUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userRepository.addUser(user).block();
+    }
+
+    @Test
+    void shouldAddAndGetFilmWithGenresInOrder() {
+        Film added = filmRepository.addFilm(createTestFilm("Film", 2, 1)).block();
+
+        Film found = filmRepository.getFilm(added.getId()).block();
+        assertThat(found.getName()).isEqualTo("Film");
+        assertThat(found.getMpa().getName()).isNotNull();
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(filmRepository.filmExists(added.getId()).block()).isTrue();
+        assertThat(filmRepository.getFilm(999L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceGenresOnUpdateAndFailForUnknownFilm() {
+        Film film = filmRepository.addFilm(createTestFilm("Film", 1, 2)).block();
+        film.setGenres(Set.of(new Genre(3, null)));
+        filmRepository.updateFilm(film).block();
+
+        assertThat(filmRepository.getFilm(film.getId()).block().getGenres())
+                .extracting(Genre::getId)
+                .containsExactly(3L);
+
+        Film unknown = createTestFilm("Unknown");
+        unknown.setId(999L);
+        assertThrows(NotFoundException.class, () -> filmRepository.updateFilm(unknown).block());
+    }
+
+    @Test
+    void shouldKeepLikesCountInSyncAndOrderPopularFilms() {
+        Film first = filmRepository.addFilm(createTestFilm("First")).block();
+        Film second = filmRepository.addFilm(createTestFilm("Second")).block();
+        User user1 = createTestUser("user1");
+        User user2 = createTestUser("user2");
+
+        filmRepository.addLike(second.getId(), user1.getId()).block();
+        filmRepository.addLike(second.getId(), user1.getId()).block();
+        filmRepository.addLike(second.getId(), user2.getId()).block();
+        filmRepository.addLike(first.getId(), user1.getId()).block();
+        filmRepository.removeLike(first.getId(), user1.getId()).block();
+        filmRepository.removeLike(first.getId(), user1.getId()).block();
+
+        assertThat(filmRepository.getPopularFilms(10).collectList().block())
+                .extracting(Film::getId, Film::getLikesCount)
+                .containsExactly(
+                        tuple(second.getId(), 2),
+                        tuple(first.getId(), 0));
+        assertThat(filmRepository.getFilm(second.getId()).block().getLikes())
+                .containsExactlyInAnyOrder(user1.getId(), user2.getId());
+    }
+}
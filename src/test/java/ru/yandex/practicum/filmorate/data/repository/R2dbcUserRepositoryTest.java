@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.data.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("reactive")
+@Import({R2dbcConfiguration.class, R2dbcUserRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class R2dbcUserRepositoryTest {
+
+    @Autowired
+    private R2dbcUserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM likes");
+        jdbcTemplate.execute("DELETE FROM friends");
+        jdbcTemplate.execute("DELETE FROM users");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1");
+    }
+
+    private User createTestUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    @Test
+    void shouldAddAndGetUserById() {
+        User addedUser = userRepository.addUser(createTestUser("test@mail.com", "testlogin")).block();
+
+        assertThat(addedUser.getId()).isEqualTo(1L);
+        assertThat(userRepository.getUser(1L).block())
+                .hasFieldOrPropertyWithValue("email", "test@mail.com")
+                .hasFieldOrPropertyWithValue("login", "testlogin");
+        assertThat(userRepository.getUser(999L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void shouldThrowWhenUpdateNonExistentUser() {
+        User user = createTestUser("nonexistent@mail.com", "nonexistent");
+        user.setId(999L);
+
+        assertThrows(NotFoundException.class, () -> userRepository.updateUser(user).block());
+    }
+
+    @Test
+    void shouldAddRemoveAndIntersectFriends() {
+        User user1 = userRepository.addUser(createTestUser("user1@mail.com", "user1")).block();
+        User user2 = userRepository.addUser(createTestUser("user2@mail.com", "user2")).block();
+        User user3 = userRepository.addUser(createTestUser("user3@mail.com", "user3")).block();
+
+        userRepository.addFriend(user1.getId(), user3.getId()).block();
+        userRepository.addFriend(user1.getId(), user3.getId()).block();
+        userRepository.addFriend(user2.getId(), user3.getId()).block();
+
+        assertThat(userRepository.getFriends(user1.getId()).collectList().block())
+                .extracting(User::getId)
+                .containsExactly(user3.getId());
+        assertThat(userRepository.getCommonFriends(user1.getId(), user2.getId()).collectList().block())
+                .extracting(User::getId)
+                .containsExactly(user3.getId());
+        assertThat(userRepository.getUser(user1.getId()).block().getFriends()).containsExactly(user3.getId());
+
+        userRepository.removeFriend(user1.getId(), user3.getId()).block();
+        assertThat(userRepository.getFriends(user1.getId()).collectList().block()).isEmpty();
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверки числа SQL-запросов в тестах. Тестовый класс должен подключить профилирование
+ * через {@link EnableQueryCounting} (профиль test), иначе DataSource не обёрнут и счётчик всегда равен нулю.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static long countQueries(Runnable action) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            action.run();
+            return scope.count();
+        }
+    }
+
+    public static <T> T assertMaxQueries(int max, Supplier<T> action) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            T result = action.get();
+            assertThat(scope.count())
+                    .as("число SQL-запросов")
+                    .isLessThanOrEqualTo(max);
+            return result;
+        }
+    }
+
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @ActiveProfiles("test")
+    @Import({StatementProfiler.class, ProfilingDataSourcePostProcessor.class})
+    public @interface EnableQueryCounting {
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementProfilerTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementProfiler profiler = new StatementProfiler(
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void shouldNormalizeLiteralsAndParameterLists() {
+        assertThat(StatementProfiler.shapeOf("SELECT * FROM films  WHERE film_id IN (1, 2, 3) AND name = 'It''s'"))
+                .isEqualTo("SELECT * FROM films WHERE film_id IN (?, ...) AND name = ?");
+        assertThat(StatementProfiler.shapeOf("SELECT * FROM films WHERE film_id IN (?, ?)"))
+                .isEqualTo(StatementProfiler.shapeOf("SELECT * FROM films WHERE film_id IN (?,?,?,?)"));
+    }
+
+    @Test
+    void shouldCacheMetersByStatementTextUpToLimit() {
+        for (int i = 0; i < 3; i++) {
+            profiler.recordExecution("SELECT * FROM films WHERE film_id = ?", 1_000);
+        }
+        assertThat(profiler.cachedStatementCount()).isEqualTo(1);
+
+        for (int id = 0; id < StatementProfiler.MAX_CACHED_STATEMENTS + 10; id++) {
+            profiler.recordExecution("SELECT * FROM users WHERE user_id = " + id, 1_000);
+        }
+        assertThat(profiler.cachedStatementCount()).isEqualTo(StatementProfiler.MAX_CACHED_STATEMENTS);
+        assertThat(profiler.shapeCount()).isEqualTo(2);
+        assertThat(registry.get(StatementProfiler.STATEMENT_TIMER).tag("sql", "SELECT * FROM users WHERE user_id = ?")
+                .timer().count()).isEqualTo(StatementProfiler.MAX_CACHED_STATEMENTS + 10);
+    }
+
+    @Test
+    void shouldKeyMetersByShapeAndCapTheirNumber() {
+        for (int id = 0; id < StatementProfiler.MAX_CACHED_SHAPES * 2; id++) {
+            profiler.recordExecution("SELECT * FROM films WHERE film_id = " + id, 1_000);
+        }
+        assertThat(profiler.shapeCount()).isEqualTo(1);
+        assertThat(profiler.cachedStatementCount()).isEqualTo(StatementProfiler.MAX_CACHED_SHAPES * 2);
+        assertThat(registry.get(StatementProfiler.STATEMENT_TIMER).timer().count())
+                .isEqualTo(StatementProfiler.MAX_CACHED_SHAPES * 2);
+
+        for (int column = 0; column < StatementProfiler.MAX_CACHED_SHAPES + 10; column++) {
+            profiler.recordExecution("SELECT c" + column + " FROM films", 1_000);
+        }
+        assertThat(profiler.shapeCount()).isEqualTo(StatementProfiler.MAX_CACHED_SHAPES + 1);
+        assertThat(registry.get(StatementProfiler.STATEMENT_TIMER).tag("sql", StatementProfiler.OTHER_SHAPE)
+                .timer().count()).isEqualTo(11);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadPinningMonitorTest {
+    private final Object lock = new Object();
+
+    /**
+     * С JDK 24 (JEP 491) synchronized больше не закрепляет виртуальный поток — там тест пропускается.
+     */
+    @Test
+    void shouldCountBlockingInsideSynchronizedOnVirtualThread() throws InterruptedException {
+        assumeTrue(Runtime.version().feature() < 24, "synchronized не закрепляет виртуальный поток начиная с JDK 24");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(10));
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (monitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            monitor.stop();
+        }
+
+        assertThat(monitor.getPinnedCount()).isEqualTo(1);
+        assertThat(registry.get(VirtualThreadPinningMonitor.PINNED_TIMER).timer().getId().getTag("site"))
+                .isEqualTo(getClass().getName() + ".sleepWhileHoldingLock");
+    }
+
+    private void sleepWhileHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FilmServiceTest {
+    private final FilmDao filmDao = mock(FilmDao.class);
+    private final GenreService genreService = mock(GenreService.class);
+    private final MpaService mpaService = mock(MpaService.class);
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmService = new FilmService(filmDao, mock(UserService.class), genreService, mpaService,
+                mock(LikeWriteBehindQueue.class), new EntityVersions(),
+                new BatchItemValidator(Validation.buildDefaultValidatorFactory().getValidator()), 2);
+
+        when(mpaService.getMpaById(anyInt())).thenThrow(new NotFoundException("Рейтинг MPA не найден"));
+        doReturn(new MpaRating(1, "G", "Нет возрастных ограничений")).when(mpaService).getMpaById(1);
+        when(genreService.getByIds(anyList())).thenReturn(List.of());
+        AtomicLong ids = new AtomicLong(100);
+        when(filmDao.addFilms(anyList())).thenAnswer(invocation -> {
+            List<Film> films = invocation.getArgument(0);
+            films.forEach(film -> film.setId(ids.getAndIncrement()));
+            return films;
+        });
+    }
+
+    @Test
+    void shouldImportValidFilmsAndReportInvalidOnesPerItem() {
+        Film blankName = film(1);
+        blankName.setName(" ");
+        Film unknownMpa = film(99);
+        Film unknownGenre = film(1);
+        unknownGenre.setGenres(Set.of(new Genre(42, "Неизвестный")));
+
+        BatchResult result = filmService.addFilms(
+                Arrays.asList(film(1), null, blankName, unknownMpa, unknownGenre, film(1)));
+
+        assertThat(result.getTotal()).isEqualTo(6);
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getId, BatchItemResult::getError)
+                .containsExactly(
+                        tuple(0, 100L, null),
+                        tuple(1, null, "Фильм не передан"),
+                        tuple(2, null, "name: Название не может быть пустым"),
+                        tuple(3, null, "MPA рейтинг с id=99 не найден"),
+                        tuple(4, null, "Жанры с id=[42] не найдены"),
+                        tuple(5, 101L, null));
+        verify(filmDao, times(2)).addFilms(anyList());
+    }
+
+    @Test
+    void shouldFailOnlyTheChunkWhoseWriteFailed() {
+        when(filmDao.addFilms(anyList()))
+                .thenThrow(new DataIntegrityViolationException("constraint"))
+                .thenAnswer(invocation -> {
+                    List<Film> films = invocation.getArgument(0);
+                    films.forEach(film -> film.setId(200));
+                    return films;
+                });
+
+        BatchResult result = filmService.addFilms(List.of(film(1), film(1), film(1)));
+
+        assertThat(result.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getId, BatchItemResult::getError)
+                .containsExactly(
+                        tuple(0, null, "Ошибка записи в БД"),
+                        tuple(1, null, "Ошибка записи в БД"),
+                        tuple(2, 200L, null));
+        verify(filmDao, times(2)).addFilms(anyList());
+    }
+
+    private static Film film(int mpaId) {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(mpaId, null, null));
+        return film;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.data.dao.FilmDao;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LikeWriteBehindQueueTest {
+    private static final long NEVER = 3_600_000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FilmDao filmDao = mock(FilmDao.class);
+    private final EntityVersions versions = new EntityVersions();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private LikeWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceCommandsForSamePair() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+
+        queue.like(1, 1);
+        queue.unlike(1, 1);
+        queue.like(1, 2);
+        queue.like(2, 1);
+        queue.like(2, 1);
+        assertThat(queue.getQueueDepth()).isEqualTo(3);
+        assertThat(queue.getCoalescedCommands()).isEqualTo(2);
+
+        queue.flush();
+
+        ArgumentCaptor<Collection<Like>> added = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<Like>> removed = ArgumentCaptor.forClass(Collection.class);
+        verify(filmDao).applyLikes(added.capture(), removed.capture());
+        assertThat(added.getValue()).containsExactly(new Like(1, 2), new Like(2, 1));
+        assertThat(removed.getValue()).containsExactly(new Like(1, 1));
+        assertThat(queue.getQueueDepth()).isZero();
+        assertThat(queue.getFlushCount()).isEqualTo(1);
+        assertThat(queue.getFlushedCommands()).isEqualTo(3);
+        assertThat(registry.get(LikeWriteBehindQueue.FLUSH_TIMER).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldChangeFilmVersionOnlyAfterFlush() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+        String filmTag = versions.filmTag(1);
+        String otherFilmTag = versions.filmTag(2);
+        String popularTag = versions.popularFilmsTag(10);
+
+        queue.like(1, 1);
+        assertThat(versions.filmTag(1)).isEqualTo(filmTag);
+        assertThat(versions.popularFilmsTag(10)).isEqualTo(popularTag);
+
+        queue.flush();
+        assertThat(versions.filmTag(1)).isNotEqualTo(filmTag);
+        assertThat(versions.popularFilmsTag(10)).isNotEqualTo(popularTag);
+        assertThat(versions.filmTag(2)).isEqualTo(otherFilmTag);
+    }
+
+    @Test
+    void shouldFlushInCallerThreadWhenQueueIsFull() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 2, NEVER, MAX_ATTEMPTS, false);
+
+        queue.like(1, 1);
+        queue.like(1, 2);
+        queue.like(1, 3);
+
+        verify(filmDao).applyLikes(List.of(new Like(1, 1), new Like(1, 2)), List.of());
+        assertThat(queue.getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCommandsWhenFlushFails() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+        doThrow(new IllegalStateException("db down")).when(filmDao).applyLikes(any(), any());
+
+        queue.like(1, 1);
+        String filmTag = versions.filmTag(1);
+        assertThrows(IllegalStateException.class, queue::flush);
+
+        assertThat(versions.filmTag(1)).isEqualTo(filmTag);
+
+        assertThat(queue.getQueueDepth()).isEqualTo(1);
+        assertThat(queue.getFailedFlushCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteAtMostBatchSizeCommandsPerTransaction() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 2, 1000, NEVER, MAX_ATTEMPTS, false);
+        for (long userId = 1; userId <= 5; userId++) {
+            queue.like(1, userId);
+        }
+
+        queue.flush();
+
+        verify(filmDao).applyLikes(List.of(new Like(1, 1), new Like(1, 2)), List.of());
+        verify(filmDao).applyLikes(List.of(new Like(1, 3), new Like(1, 4)), List.of());
+        verify(filmDao).applyLikes(List.of(new Like(1, 5)), List.of());
+        assertThat(queue.getFlushCount()).isEqualTo(3);
+        assertThat(queue.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void shouldDropCommandsAfterMaxAttempts() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+        doThrow(new IllegalStateException("fk violation")).when(filmDao).applyLikes(any(), any());
+        queue.like(1, 1);
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            assertThrows(IllegalStateException.class, queue::flush);
+            assertThat(queue.getQueueDepth()).isEqualTo(1);
+        }
+        assertThrows(IllegalStateException.class, queue::flush);
+
+        assertThat(queue.getQueueDepth()).isZero();
+        assertThat(queue.getDeadLetteredCommands()).isEqualTo(1);
+        assertThat(queue.getFailedFlushCount()).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void shouldResetAttemptsWhenNewerCommandArrives() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, 2, false);
+        doThrow(new IllegalStateException("db down")).when(filmDao).applyLikes(any(), any());
+        queue.like(1, 1);
+        assertThrows(IllegalStateException.class, queue::flush);
+
+        queue.unlike(1, 1);
+        assertThrows(IllegalStateException.class, queue::flush);
+
+        assertThat(queue.getQueueDepth()).isEqualTo(1);
+        assertThat(queue.getDeadLetteredCommands()).isZero();
+    }
+
+    @Test
+    void shouldFlushPendingCommandsOnShutdown() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, true, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+        queue.like(5, 7);
+
+        queue.shutdown();
+        queue = null;
+
+        verify(filmDao, times(1)).applyLikes(List.of(new Like(5, 7)), List.of());
+    }
+
+    @Test
+    void shouldNotScheduleAnythingWhenDisabled() {
+        queue = new LikeWriteBehindQueue(filmDao, versions, registry, false, 100, 1000, NEVER, MAX_ATTEMPTS, false);
+
+        assertThat(queue.isEnabled()).isFalse();
+        queue.flush();
+        verify(filmDao, never()).applyLikes(any(), any());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.data.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.data.dao.UserDao;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+    private final UserDao userDao = mock(UserDao.class);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userDao, new EntityVersions(),
+                new BatchItemValidator(Validation.buildDefaultValidatorFactory().getValidator()), 1000);
+        when(userDao.addUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            long id = 100;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return users;
+        });
+    }
+
+    @Test
+    void shouldImportValidUsersAndReportInvalidOnesPerItem() {
+        User badEmail = user("login2");
+        badEmail.setEmail("not-an-email");
+        User noBirthday = user("login3");
+        noBirthday.setBirthday(null);
+        User noName = user("login4");
+        noName.setName(null);
+
+        BatchResult result = userService.addUsers(Arrays.asList(user("login1"), null, badEmail, noBirthday, noName));
+
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getItems())
+                .extracting(BatchItemResult::getIndex, BatchItemResult::getId, BatchItemResult::getError)
+                .containsExactly(
+                        tuple(0, 100L, null),
+                        tuple(1, null, "Пользователь не передан"),
+                        tuple(2, null, "email: Электронная почта должна быть корректной"),
+                        tuple(3, null, "birthday: Дата рождения обязательна"),
+                        tuple(4, 101L, null));
+        assertThat(noName.getName()).isEqualTo("login4");
+    }
+
+    @Test
+    void shouldReportSuggestionLimitWithItsOwnMessage() {
+        assertThatThrownBy(() -> userService.getFriendSuggestions(1, 0))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Количество предложений друзей должно быть от 1 до 1000");
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}